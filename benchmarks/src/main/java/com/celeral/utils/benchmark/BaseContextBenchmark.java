@@ -0,0 +1,78 @@
+/*
+ * Copyright © 2021 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.utils.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.celeral.utils.Attribute;
+import com.celeral.utils.BaseContext;
+import com.celeral.utils.Context;
+
+/**
+ * Resolution of the attribute values through chains of contexts of various depths. The value is
+ * either defined at the root of the chain or nowhere, in which case the default value is returned.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BaseContextBenchmark {
+  public interface Attributes {
+    Attribute<Integer> DEFINED = new Attribute<>(0);
+    Attribute<Integer> UNDEFINED = new Attribute<>(-1);
+    long serialVersionUID =
+        Attribute.AttributeMap.AttributeInitializer.initialize(Attributes.class);
+  }
+
+  @Param({"1", "4", "16"})
+  public int depth;
+
+  private Context leaf;
+
+  @Setup
+  public void setup() {
+    BaseContext context = new BaseContext(null, null);
+    context.attributes.put(Attributes.DEFINED, 42);
+    for (int i = 1; i < depth; i++) {
+      context = new BaseContext(null, context);
+    }
+    leaf = context;
+  }
+
+  @Benchmark
+  public Integer defined() {
+    return leaf.getValue(Attributes.DEFINED);
+  }
+
+  @Benchmark
+  public Integer undefined() {
+    return leaf.getValue(Attributes.UNDEFINED);
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright © 2021 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.utils.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.getopt.util.hash.MurmurHash;
+import org.getopt.util.hash.MurmurHash3;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of hashing byte arrays of various lengths. The library implementations, which read the
+ * blocks a word at a time, are compared with the baselines which assemble each block from the
+ * individual bytes the way the library used to.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MurmurHashBenchmark {
+  @Param({"8", "64", "1024", "65536"})
+  public int length;
+
+  private byte[] data;
+  private final long[] result = new long[2];
+
+  @Setup
+  public void setup() {
+    /* hash an unaligned window to keep the measurement honest */
+    data = new byte[length + 1];
+    new Random(length).nextBytes(data);
+  }
+
+  @Benchmark
+  public int hash() {
+    return MurmurHash.hash(data, 5, 1, length);
+  }
+
+  @Benchmark
+  public int hashBytewise() {
+    return bytewise(data, 5, 1, length);
+  }
+
+  @Benchmark
+  public int hash3x86_32() {
+    return MurmurHash3.hash32(data, 5, 1, length);
+  }
+
+  @Benchmark
+  public long[] hash3x64_128() {
+    MurmurHash3.hash128(data, 5, 1, length, result);
+    return result;
+  }
+
+  /** MurmurHash2 as implemented before the blocks were read a word at a time. */
+  static int bytewise(byte[] data, int seed, int offset, int length) {
+    int m = 0x5bd1e995;
+    int r = 24;
+
+    int h = seed ^ length;
+
+    int len_4 = length >> 2;
+
+    for (int i = 0; i < len_4; i++) {
+      int i_4 = offset + (i << 2);
+      int k = data[i_4 + 3];
+      k <<= 8;
+      k |= (data[i_4 + 2] & 0xff);
+      k <<= 8;
+      k |= (data[i_4 + 1] & 0xff);
+      k <<= 8;
+      k |= (data[i_4 + 0] & 0xff);
+      k *= m;
+      k ^= k >>> r;
+      k *= m;
+      h *= m;
+      h ^= k;
+    }
+
+    int len_m = len_4 << 2;
+    int left = length - len_m;
+
+    if (left != 0) {
+      length += offset;
+      if (left >= 3) {
+        h ^= (int) data[length - 3] << 16;
+      }
+      if (left >= 2) {
+        h ^= (int) data[length - 2] << 8;
+      }
+      if (left >= 1) {
+        h ^= (int) data[length - 1];
+      }
+
+      h *= m;
+    }
+
+    h ^= h >>> 13;
+    h *= m;
+    h ^= h >>> 15;
+
+    return h;
+  }
+}
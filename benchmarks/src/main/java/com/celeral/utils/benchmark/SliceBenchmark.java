@@ -0,0 +1,113 @@
+/*
+ * Copyright © 2021 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.utils.benchmark;
+
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.celeral.utils.ImmutableSlice;
+import com.celeral.utils.Slice;
+
+/**
+ * Hashing, comparison and hash map lookups of slices. The lookups are measured once with plain
+ * {@link Slice} keys and probes, which are rehashed on every lookup, and once with {@link
+ * ImmutableSlice} keys and probes, which cache their hash codes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SliceBenchmark {
+  private static final int KEYS = 1024;
+
+  @Param({"16", "256", "1024", "4096"})
+  public int length;
+
+  private Slice slice;
+  private Slice equal;
+  private Slice[] probes;
+  private ImmutableSlice[] immutableProbes;
+  private HashMap<Slice, Integer> map;
+  private HashMap<Slice, Integer> immutableMap;
+  private int index;
+
+  private static byte[] copy(byte[] bytes, int padding) {
+    byte[] copy = new byte[bytes.length + padding];
+    System.arraycopy(bytes, 0, copy, padding, bytes.length);
+    return copy;
+  }
+
+  @Setup
+  public void setup() {
+    Random random = new Random(length);
+    byte[] bytes = new byte[length];
+    random.nextBytes(bytes);
+    slice = new Slice(copy(bytes, 3), 3, length);
+    equal = new Slice(copy(bytes, 7), 7, length);
+
+    probes = new Slice[KEYS];
+    immutableProbes = new ImmutableSlice[KEYS];
+    map = new HashMap<>();
+    immutableMap = new HashMap<>();
+    for (int i = 0; i < KEYS; i++) {
+      random.nextBytes(bytes);
+      map.put(new Slice(bytes.clone()), i);
+      immutableMap.put(new ImmutableSlice(bytes.clone()), i);
+      probes[i] = new Slice(bytes.clone());
+      immutableProbes[i] = new ImmutableSlice(bytes.clone());
+    }
+  }
+
+  @Benchmark
+  public int hash() {
+    return slice.hashCode();
+  }
+
+  @Benchmark
+  public boolean equality() {
+    return slice.equals(equal);
+  }
+
+  @Benchmark
+  public int compare() {
+    return slice.compareTo(equal);
+  }
+
+  @Benchmark
+  public Integer lookup() {
+    return map.get(probes[index++ & (KEYS - 1)]);
+  }
+
+  @Benchmark
+  public Integer lookupImmutable() {
+    return immutableMap.get(immutableProbes[index++ & (KEYS - 1)]);
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright © 2021 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.utils.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.celeral.utils.StreamUtils;
+
+/**
+ * Reading streams fully. The streams either report the count of the available bytes upfront like
+ * the ones over the local files do, or report none like the ones over the network sockets usually
+ * do.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StreamUtilsBenchmark {
+  @Param({"512", "65536", "4194304"})
+  public int size;
+
+  private byte[] data;
+
+  /** Stream which does not know how many bytes can be read without blocking. */
+  static class UnknownLengthInputStream extends ByteArrayInputStream {
+    UnknownLengthInputStream(byte[] buf) {
+      super(buf);
+    }
+
+    @Override
+    public synchronized int available() {
+      return 0;
+    }
+  }
+
+  @Setup
+  public void setup() throws IOException {
+    data = new byte[size];
+    new Random(size).nextBytes(data);
+
+    /* timing a path which returns the wrong bytes is pointless */
+    verify("known length", readFullyKnownLength());
+    verify("unknown length", readFullyUnknownLength());
+  }
+
+  private void verify(String path, byte[] result) {
+    if (!Arrays.equals(data, result)) {
+      throw new IllegalStateException(
+          "Reading " + size + " bytes of " + path + " returned different bytes.");
+    }
+  }
+
+  @Benchmark
+  public byte[] readFullyKnownLength() throws IOException {
+    return StreamUtils.readFully(new ByteArrayInputStream(data));
+  }
+
+  @Benchmark
+  public byte[] readFullyUnknownLength() throws IOException {
+    return StreamUtils.readFully(new UnknownLengthInputStream(data));
+  }
+}
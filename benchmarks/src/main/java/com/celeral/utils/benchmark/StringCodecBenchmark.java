@@ -0,0 +1,73 @@
+/*
+ * Copyright © 2021 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.utils.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.celeral.utils.StringCodec;
+
+/** Round trips of the values through their string representations. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringCodecBenchmark {
+  private final StringCodec<Integer> integerCodec = new StringCodec.Integer2String();
+  private final StringCodec<Map<String, Long>> mapCodec =
+      new StringCodec.Map2String<>(
+          ",", "=", new StringCodec.String2String(), new StringCodec.Long2String());
+  private final StringCodec<Object> objectCodec = new StringCodec.Object2String<>();
+
+  private Map<String, Long> map;
+
+  @Setup
+  public void setup() {
+    map = new HashMap<>();
+    for (long i = 0; i < 8; i++) {
+      map.put("key" + i, i * 1000);
+    }
+  }
+
+  @Benchmark
+  public Integer integer() throws ClassNotFoundException {
+    return integerCodec.fromString(integerCodec.toString(123456789));
+  }
+
+  @Benchmark
+  public Map<String, Long> map() throws ClassNotFoundException {
+    return mapCodec.fromString(mapCodec.toString(map));
+  }
+
+  @Benchmark
+  public Object object() throws ClassNotFoundException {
+    return objectCodec.fromString(objectCodec.toString(new StringBuilder("value")));
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright © 2021 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.utils.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.celeral.utils.VarInt;
+
+/**
+ * Encoding and decoding of varints. The values are drawn so that their encoded sizes are either all
+ * one byte or uniformly distributed between one and five bytes. There are enough of them that the
+ * branch predictor cannot learn the sequence of the sizes, which would flatter the branchy code.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VarIntBenchmark {
+  static final int COUNT = 64 * 1024;
+
+  @Param({"small", "mixed"})
+  public String distribution;
+
+  int[] values;
+  int[] decoded;
+  byte[] encoded;
+  int encodedLength;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(COUNT);
+    values = new int[COUNT];
+    for (int i = 0; i < COUNT; i++) {
+      values[i] =
+          "small".equals(distribution)
+              ? random.nextInt(128)
+              : random.nextInt() >>> (7 * random.nextInt(5));
+    }
+
+    decoded = new int[COUNT];
+    encoded = new byte[5 * COUNT];
+    for (int value : values) {
+      encodedLength = VarInt.write(value, encoded, encodedLength);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public int write() {
+    int offset = 0;
+    for (int value : values) {
+      offset = VarInt.write(value, encoded, offset);
+    }
+    return offset;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public int read() {
+    VarInt.MutableInt offset = new VarInt.MutableInt();
+    int sum = 0;
+    while (offset.integer < encodedLength) {
+      sum += VarInt.read(encoded, offset.integer, encodedLength, offset);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public int readPacked() {
+    int offset = 0;
+    int sum = 0;
+    while (offset < encodedLength) {
+      long packed = VarInt.readPacked(encoded, offset, encodedLength);
+      offset = VarInt.offset(packed);
+      sum += VarInt.value(packed);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public int encode() {
+    return VarInt.encode(values, 0, COUNT, encoded, 0);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(COUNT)
+  public int[] decode() {
+    VarInt.decode(encoded, 0, encodedLength, decoded);
+    return decoded;
+  }
+}
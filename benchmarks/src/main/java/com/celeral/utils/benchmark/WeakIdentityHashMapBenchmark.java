@@ -0,0 +1,92 @@
+/*
+ * Copyright © 2021 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.utils.benchmark;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.celeral.utils.WeakIdentityHashMap;
+
+/**
+ * Lookups from a single thread, and lookups and insertions into a map shared by the reader threads
+ * and a writer thread. {@link WeakIdentityHashMap} is not thread safe, so the shared map is wrapped
+ * with {@link Collections#synchronizedMap(Map)}, the way it has to be used by concurrent callers;
+ * the contended group thus measures the map behind the lock rather than a data race.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WeakIdentityHashMapBenchmark {
+  private static final int KEYS = 1024;
+
+  private WeakIdentityHashMap<Object, Integer> map;
+  private Map<Object, Integer> synchronizedMap;
+  private Object[] keys;
+
+  @State(Scope.Thread)
+  public static class Cursor {
+    int index;
+  }
+
+  @Setup
+  public void setup() {
+    map = new WeakIdentityHashMap<>(KEYS);
+    keys = new Object[KEYS];
+    for (int i = 0; i < KEYS; i++) {
+      keys[i] = new Object();
+      map.put(keys[i], i);
+    }
+    synchronizedMap = Collections.synchronizedMap(map);
+  }
+
+  @Benchmark
+  @Group("uncontended")
+  public Integer uncontendedGet(Cursor cursor) {
+    return map.get(keys[cursor.index++ & (KEYS - 1)]);
+  }
+
+  @Benchmark
+  @Group("contended")
+  @GroupThreads(3)
+  public Integer get(Cursor cursor) {
+    return synchronizedMap.get(keys[cursor.index++ & (KEYS - 1)]);
+  }
+
+  @Benchmark
+  @Group("contended")
+  @GroupThreads(1)
+  public Integer put(Cursor cursor) {
+    final int i = cursor.index++ & (KEYS - 1);
+    return synchronizedMap.put(keys[i], i);
+  }
+}
@@ -0,0 +1,285 @@
+/*
+ * Copyright © 2021 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.utils;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.util.function.BiFunction;
+
+import org.getopt.util.hash.MurmurHash;
+
+/**
+ * Bloom filter over byte ranges: a compact probabilistic set which answers whether a key might have
+ * been added, with no false negatives and a configurable rate of false positives. It is meant as a
+ * cheap pre-filter in front of the expensive lookups.
+ *
+ * <p>The bits are kept in 64 bit words. Each key is hashed with {@link MurmurHash} twice, using
+ * different seeds, and the two hashes generate all the bit indexes of the key by double hashing, so
+ * the cost of hashing does not grow with the number of hash functions.
+ *
+ * <p>The storage of the bits is left to the subclasses: {@link BloomFilter} for the use by a single
+ * thread and {@link ConcurrentBloomFilter} for the concurrent additions.
+ *
+ * @since 2.2.1
+ */
+public abstract class AbstractBloomFilter {
+  static final int SEED1 = 0x9747b28c;
+  static final int SEED2 = 0x5bd1e995;
+
+  final long numBits;
+  final int numHashes;
+
+  /**
+   * Constructs the filter with the given number of bits and hash functions.
+   *
+   * @param numBits number of bits, rounded up to a multiple of 64
+   * @param numHashes number of hash functions
+   */
+  AbstractBloomFilter(long numBits, int numHashes) {
+    if (numBits <= 0 || numBits > (long) Integer.MAX_VALUE << 6) {
+      throw new IllegalArgumentException("Number of bits out of range: " + numBits);
+    }
+    if (numHashes <= 0) {
+      throw new IllegalArgumentException("Number of hash functions must be positive: " + numHashes);
+    }
+
+    this.numBits = (numBits + 63) & ~63L;
+    this.numHashes = numHashes;
+  }
+
+  /**
+   * Computes the number of bits which keeps the false positive probability at the given level once
+   * the expected number of keys is added.
+   *
+   * @param expectedInsertions expected number of keys
+   * @param fpp desired false positive probability, between 0 and 1 exclusive
+   * @return number of bits
+   */
+  public static long optimalNumBits(long expectedInsertions, double fpp) {
+    if (expectedInsertions <= 0) {
+      throw new IllegalArgumentException(
+          "Expected insertions must be positive: " + expectedInsertions);
+    }
+    if (!(fpp > 0 && fpp < 1)) {
+      throw new IllegalArgumentException("False positive probability out of range: " + fpp);
+    }
+
+    return Math.max(
+        64, (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2))));
+  }
+
+  /**
+   * Computes the number of hash functions which minimizes the false positive probability for the
+   * given number of keys and bits.
+   *
+   * @param expectedInsertions expected number of keys
+   * @param numBits number of bits
+   * @return number of hash functions
+   */
+  public static int optimalNumHashes(long expectedInsertions, long numBits) {
+    return Math.max(1, (int) Math.round((double) numBits / expectedInsertions * Math.log(2)));
+  }
+
+  /**
+   * Hashes the bytes into the two 32 bit hashes used to generate the indexes, the first one in the
+   * higher half of the result.
+   */
+  static long hash(byte[] data, int offset, int length) {
+    return (long) MurmurHash.hash(data, SEED1, offset, length) << 32
+        | MurmurHash.hash(data, SEED2, offset, length) & 0xffffffffL;
+  }
+
+  /**
+   * Sets the bit.
+   *
+   * @param index index of the bit
+   * @return true if the bit was clear before, false otherwise
+   */
+  abstract boolean setBit(long index);
+
+  abstract boolean getBit(long index);
+
+  abstract long getWord(int index);
+
+  abstract void orWord(int index, long word);
+
+  /**
+   * Adds the key to the filter.
+   *
+   * @param data array containing the key
+   * @param offset start of the key in the array
+   * @param length length of the key
+   * @return true if any of the bits of the key changed, i.e. the key definitely was not added
+   *     before; false if the key might have been added before
+   */
+  public boolean put(byte[] data, int offset, int length) {
+    final long hash = hash(data, offset, length);
+    long combined = hash;
+    final long step = Long.rotateLeft(hash, 32);
+    boolean changed = false;
+    for (int i = 0; i < numHashes; i++) {
+      changed |= setBit((combined & Long.MAX_VALUE) % numBits);
+      combined += step;
+    }
+
+    return changed;
+  }
+
+  /**
+   * Adds the bytes of the slice to the filter.
+   *
+   * @param key the key
+   * @return true if the key definitely was not added before; false if it might have been
+   * @see #put(byte[], int, int)
+   */
+  public boolean put(Slice key) {
+    return put(key.buffer, key.offset, key.length);
+  }
+
+  /**
+   * Tests whether the key might have been added to the filter.
+   *
+   * @param data array containing the key
+   * @param offset start of the key in the array
+   * @param length length of the key
+   * @return false if the key definitely was not added; true if it might have been
+   */
+  public boolean mightContain(byte[] data, int offset, int length) {
+    final long hash = hash(data, offset, length);
+    long combined = hash;
+    final long step = Long.rotateLeft(hash, 32);
+    for (int i = 0; i < numHashes; i++) {
+      if (!getBit((combined & Long.MAX_VALUE) % numBits)) {
+        return false;
+      }
+      combined += step;
+    }
+
+    return true;
+  }
+
+  /**
+   * Tests whether the bytes of the slice might have been added to the filter.
+   *
+   * @param key the key
+   * @return false if the key definitely was not added; true if it might have been
+   */
+  public boolean mightContain(Slice key) {
+    return mightContain(key.buffer, key.offset, key.length);
+  }
+
+  /**
+   * Adds all the keys of the other filter to this one. The filters must have the same number of
+   * bits and hash functions.
+   *
+   * @param other filter whose keys are added
+   */
+  public void putAll(AbstractBloomFilter other) {
+    if (other.numBits != numBits || other.numHashes != numHashes) {
+      throw new IllegalArgumentException("Incompatible filters " + this + " and " + other);
+    }
+
+    for (int i = 0, words = wordCount(); i < words; i++) {
+      orWord(i, other.getWord(i));
+    }
+  }
+
+  /**
+   * Counts the bits which are set.
+   *
+   * @return number of the set bits
+   */
+  public long bitCount() {
+    long count = 0;
+    for (int i = 0, words = wordCount(); i < words; i++) {
+      count += Long.bitCount(getWord(i));
+    }
+
+    return count;
+  }
+
+  /**
+   * Estimates the probability that {@link #mightContain(byte[], int, int)} returns true for a key
+   * which was not added, based on the fraction of the bits set so far.
+   *
+   * @return the estimated false positive probability
+   */
+  public double expectedFpp() {
+    return Math.pow((double) bitCount() / numBits, numHashes);
+  }
+
+  public long getNumBits() {
+    return numBits;
+  }
+
+  public int getNumHashes() {
+    return numHashes;
+  }
+
+  final int wordCount() {
+    return (int) (numBits >>> 6);
+  }
+
+  /**
+   * Writes the filter in a compact binary form: the number of hash functions and the number of the
+   * words, both as {@link VarInt}, followed by the words as big endian longs.
+   *
+   * @param out stream to write the filter to
+   * @throws IOException propagates the exceptions encountered while writing to the stream
+   */
+  public void writeTo(OutputStream out) throws IOException {
+    final int words = wordCount();
+    VarInt.write(numHashes, out);
+    VarInt.write(words, out);
+
+    final DataOutputStream data = new DataOutputStream(out);
+    for (int i = 0; i < words; i++) {
+      data.writeLong(getWord(i));
+    }
+    data.flush();
+  }
+
+  /**
+   * Reads the filter written by {@link #writeTo(OutputStream)} into the filter created by the
+   * factory from the number of bits and hash functions.
+   */
+  static <T extends AbstractBloomFilter> T readFrom(
+      InputStream in, BiFunction<Long, Integer, T> factory) throws IOException {
+    final int numHashes = VarInt.read(in);
+    final int words = VarInt.read(in);
+    if (numHashes <= 0 || words <= 0) {
+      throw new StreamCorruptedException(
+          "Invalid Bloom filter header: hashes " + numHashes + ", words " + words);
+    }
+
+    final T filter = factory.apply((long) words << 6, numHashes);
+    final DataInputStream data = new DataInputStream(in);
+    for (int i = 0; i < words; i++) {
+      filter.orWord(i, data.readLong());
+    }
+
+    return filter;
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "{bits=" + numBits + ", hashes=" + numHashes + '}';
+  }
+}
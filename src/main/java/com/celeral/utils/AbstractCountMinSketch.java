@@ -0,0 +1,245 @@
+/*
+ * Copyright © 2021 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.util.function.BiFunction;
+
+/**
+ * Count-min sketch over byte ranges: a compact table of counters which estimates how many times
+ * each key was added. The estimates never undercount; with the probability of at least {@code 1 -
+ * delta} they overcount by no more than {@code epsilon} times the total of all the counts added.
+ *
+ * <p>The counters form {@code depth} rows of {@code width} counters each. The key is hashed once,
+ * the same way as by {@link AbstractBloomFilter}, and the two hashes generate the column of the key
+ * in each row by double hashing.
+ *
+ * <p>The storage of the counters is left to the subclasses: {@link CountMinSketch} for the use by a
+ * single thread and {@link ConcurrentCountMinSketch} for the concurrent additions.
+ *
+ * @since 2.2.1
+ */
+public abstract class AbstractCountMinSketch {
+  final int depth;
+  final int width;
+
+  /**
+   * Constructs the sketch with the given dimensions.
+   *
+   * @param depth number of rows
+   * @param width number of counters in each row
+   */
+  AbstractCountMinSketch(int depth, int width) {
+    if (depth <= 0 || width <= 0 || (long) depth * width > Integer.MAX_VALUE - 8) {
+      throw new IllegalArgumentException("Dimensions out of range: " + depth + " x " + width);
+    }
+
+    this.depth = depth;
+    this.width = width;
+  }
+
+  /**
+   * Computes the width which bounds the overcount by the given fraction of the total count.
+   *
+   * @param epsilon the fraction of the total count, between 0 and 1 exclusive
+   * @return number of counters in each row
+   */
+  public static int optimalWidth(double epsilon) {
+    if (!(epsilon > 0 && epsilon < 1)) {
+      throw new IllegalArgumentException("Epsilon out of range: " + epsilon);
+    }
+
+    return (int) Math.ceil(Math.E / epsilon);
+  }
+
+  /**
+   * Computes the depth which holds the bound on the overcount with the given confidence.
+   *
+   * @param delta probability of exceeding the bound, between 0 and 1 exclusive
+   * @return number of rows
+   */
+  public static int optimalDepth(double delta) {
+    if (!(delta > 0 && delta < 1)) {
+      throw new IllegalArgumentException("Delta out of range: " + delta);
+    }
+
+    return (int) Math.ceil(Math.log(1 / delta));
+  }
+
+  /**
+   * Adds the count to the counter.
+   *
+   * @param index index of the counter
+   * @param count count to be added
+   */
+  abstract void addCounter(int index, long count);
+
+  abstract long getCounter(int index);
+
+  abstract void addTotal(long count);
+
+  /**
+   * Adds the count to the key.
+   *
+   * @param data array containing the key
+   * @param offset start of the key in the array
+   * @param length length of the key
+   * @param count non-negative count to be added
+   */
+  public void add(byte[] data, int offset, int length, long count) {
+    if (count < 0) {
+      throw new IllegalArgumentException("Negative count " + count);
+    }
+
+    final long hash = AbstractBloomFilter.hash(data, offset, length);
+    long combined = hash;
+    final long step = Long.rotateLeft(hash, 32);
+    for (int row = 0, index = 0; row < depth; row++, index += width) {
+      addCounter(index + (int) ((combined & Long.MAX_VALUE) % width), count);
+      combined += step;
+    }
+
+    addTotal(count);
+  }
+
+  /**
+   * Adds the count to the key formed by the bytes of the slice.
+   *
+   * @param key the key
+   * @param count non-negative count to be added
+   */
+  public void add(Slice key, long count) {
+    add(key.buffer, key.offset, key.length, count);
+  }
+
+  /**
+   * Estimates the total of the counts added to the key.
+   *
+   * @param data array containing the key
+   * @param offset start of the key in the array
+   * @param length length of the key
+   * @return the estimate, which is never less than the actual total
+   */
+  public long estimateCount(byte[] data, int offset, int length) {
+    final long hash = AbstractBloomFilter.hash(data, offset, length);
+    long combined = hash;
+    final long step = Long.rotateLeft(hash, 32);
+    long estimate = Long.MAX_VALUE;
+    for (int row = 0, index = 0; row < depth; row++, index += width) {
+      estimate =
+          Math.min(estimate, getCounter(index + (int) ((combined & Long.MAX_VALUE) % width)));
+      combined += step;
+    }
+
+    return estimate;
+  }
+
+  /**
+   * Estimates the total of the counts added to the key formed by the bytes of the slice.
+   *
+   * @param key the key
+   * @return the estimate, which is never less than the actual total
+   */
+  public long estimateCount(Slice key) {
+    return estimateCount(key.buffer, key.offset, key.length);
+  }
+
+  /**
+   * Adds all the counts of the other sketch to this one. The sketches must have the same
+   * dimensions.
+   *
+   * @param other sketch whose counts are added
+   */
+  public void addAll(AbstractCountMinSketch other) {
+    if (other.depth != depth || other.width != width) {
+      throw new IllegalArgumentException("Incompatible sketches " + this + " and " + other);
+    }
+
+    for (int i = 0, counters = depth * width; i < counters; i++) {
+      addCounter(i, other.getCounter(i));
+    }
+    addTotal(other.getTotalCount());
+  }
+
+  /**
+   * Returns the total of all the counts added to the sketch.
+   *
+   * @return the total count
+   */
+  public abstract long getTotalCount();
+
+  public int getDepth() {
+    return depth;
+  }
+
+  public int getWidth() {
+    return width;
+  }
+
+  /**
+   * Writes the sketch in a compact binary form: the depth and the width, both as {@link VarInt},
+   * followed by the total count and the counters row by row, all as {@link VarInt} longs.
+   *
+   * @param out stream to write the sketch to
+   * @throws IOException propagates the exceptions encountered while writing to the stream
+   */
+  public void writeTo(OutputStream out) throws IOException {
+    VarInt.write(depth, out);
+    VarInt.write(width, out);
+
+    VarInt.writeLong(getTotalCount(), out);
+    for (int i = 0, counters = depth * width; i < counters; i++) {
+      VarInt.writeLong(getCounter(i), out);
+    }
+  }
+
+  /**
+   * Reads the sketch written by {@link #writeTo(OutputStream)} into the sketch created by the
+   * factory from the depth and the width.
+   */
+  static <T extends AbstractCountMinSketch> T readFrom(
+      InputStream in, BiFunction<Integer, Integer, T> factory) throws IOException {
+    final int depth = VarInt.read(in);
+    final int width = VarInt.read(in);
+    if (depth <= 0 || width <= 0 || (long) depth * width > Integer.MAX_VALUE - 8) {
+      throw new StreamCorruptedException(
+          "Invalid count-min sketch header: depth " + depth + ", width " + width);
+    }
+
+    final T sketch = factory.apply(depth, width);
+    sketch.addTotal(VarInt.readLong(in));
+    for (int i = 0, counters = depth * width; i < counters; i++) {
+      sketch.addCounter(i, VarInt.readLong(in));
+    }
+
+    return sketch;
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName()
+        + "{depth="
+        + depth
+        + ", width="
+        + width
+        + ", total="
+        + getTotalCount()
+        + '}';
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright © 2021 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * {@link AbstractBloomFilter} keeping its bits in a {@code long[]}. It is not thread safe; use
+ * {@link ConcurrentBloomFilter} when the keys are added by multiple threads.
+ *
+ * @since 2.2.1
+ */
+public class BloomFilter extends AbstractBloomFilter {
+  private final long[] bits;
+
+  /**
+   * Constructs the filter sized to keep the false positive probability at the given level once the
+   * expected number of keys is added.
+   *
+   * @param expectedInsertions expected number of keys
+   * @param fpp desired false positive probability, between 0 and 1 exclusive
+   */
+  public BloomFilter(long expectedInsertions, double fpp) {
+    this(
+        optimalNumBits(expectedInsertions, fpp),
+        optimalNumHashes(expectedInsertions, optimalNumBits(expectedInsertions, fpp)));
+  }
+
+  private BloomFilter(long numBits, int numHashes) {
+    super(numBits, numHashes);
+    bits = new long[wordCount()];
+  }
+
+  /**
+   * Creates the filter with the given number of bits and hash functions. It is a named factory
+   * rather than a constructor so that it cannot be confused with {@link #BloomFilter(long,
+   * double)}.
+   *
+   * @param numBits number of bits, rounded up to a multiple of 64
+   * @param numHashes number of hash functions
+   * @return the empty filter
+   */
+  public static BloomFilter withGeometry(long numBits, int numHashes) {
+    return new BloomFilter(numBits, numHashes);
+  }
+
+  @Override
+  boolean setBit(long index) {
+    final int word = (int) (index >>> 6);
+    final long mask = 1L << index;
+    final long old = bits[word];
+    bits[word] = old | mask;
+    return (old & mask) == 0;
+  }
+
+  @Override
+  boolean getBit(long index) {
+    return (bits[(int) (index >>> 6)] & 1L << index) != 0;
+  }
+
+  @Override
+  long getWord(int index) {
+    return bits[index];
+  }
+
+  @Override
+  void orWord(int index, long word) {
+    bits[index] |= word;
+  }
+
+  /** Removes all the keys from the filter. */
+  public void clear() {
+    Arrays.fill(bits, 0);
+  }
+
+  /**
+   * Reads the filter written by {@link #writeTo(java.io.OutputStream)}.
+   *
+   * @param in stream to read the filter from
+   * @return the filter read
+   * @throws IOException propagates the exceptions encountered while reading from the stream
+   */
+  public static BloomFilter readFrom(InputStream in) throws IOException {
+    return readFrom(in, BloomFilter::withGeometry);
+  }
+}
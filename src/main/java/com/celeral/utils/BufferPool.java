@@ -0,0 +1,133 @@
+/*
+ * Copyright © 2021 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.utils;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Thread safe pool of the byte arrays used as temporary buffers. The arrays are bucketed by their
+ * size into the classes of the powers of two, and each class retains a bounded number of the
+ * released arrays in the slots which are claimed and filled with compare and swap, so neither
+ * {@link #acquire(int)} nor {@link #release(byte[])} ever blocks.
+ *
+ * <p>The requests for the arrays larger than the largest class are served with freshly allocated
+ * arrays, and such arrays are dropped when released. The acquired arrays are not cleared, so they
+ * may contain the data written by their previous users.
+ *
+ * <p>An array must not be used after it has been released, nor released more than once.
+ *
+ * @since 2.2.1
+ */
+public class BufferPool {
+  public static final int MIN_SIZE = 512;
+  public static final int DEFAULT_MAX_SIZE = 256 * 1024;
+  public static final int DEFAULT_BUFFERS_PER_SIZE = 8;
+
+  private static final int MIN_SHIFT = Integer.numberOfTrailingZeros(MIN_SIZE);
+  private static final BufferPool DEFAULT =
+      new BufferPool(DEFAULT_MAX_SIZE, DEFAULT_BUFFERS_PER_SIZE);
+
+  private final int maxSize;
+  private final AtomicReferenceArray<byte[]>[] classes;
+
+  /**
+   * Constructs the pool.
+   *
+   * @param maxSize size of the largest arrays retained, rounded up to a power of two
+   * @param buffersPerSize maximum count of the arrays retained for each of the sizes
+   */
+  @SuppressWarnings("unchecked")
+  public BufferPool(int maxSize, int buffersPerSize) {
+    if (maxSize < MIN_SIZE || maxSize > 1 << 30) {
+      throw new IllegalArgumentException(
+          "Maximum size must be between " + MIN_SIZE + " and 1GB: " + maxSize);
+    }
+    if (buffersPerSize <= 0) {
+      throw new IllegalArgumentException("Buffers per size must be positive: " + buffersPerSize);
+    }
+
+    this.classes = new AtomicReferenceArray[sizeClass(maxSize) + 1];
+    for (int i = 0; i < classes.length; i++) {
+      classes[i] = new AtomicReferenceArray<>(buffersPerSize);
+    }
+    this.maxSize = MIN_SIZE << (classes.length - 1);
+  }
+
+  /**
+   * Returns the pool shared by the whole VM. It retains up to {@value #DEFAULT_BUFFERS_PER_SIZE}
+   * arrays of each size up to {@value #DEFAULT_MAX_SIZE} bytes.
+   *
+   * @return the shared pool
+   */
+  public static BufferPool getDefault() {
+    return DEFAULT;
+  }
+
+  /**
+   * Acquires an array of at least the given size. The sizes up to the largest class are rounded up
+   * to a power of two no smaller than {@value #MIN_SIZE}.
+   *
+   * @param size minimum size of the array
+   * @return an array released earlier, or a new one if none is available
+   */
+  public byte[] acquire(int size) {
+    if (size > maxSize) {
+      return new byte[size];
+    }
+
+    final int sizeClass = sizeClass(size);
+    final AtomicReferenceArray<byte[]> slots = classes[sizeClass];
+    for (int i = 0; i < slots.length(); i++) {
+      if (slots.get(i) != null) {
+        final byte[] buffer = slots.getAndSet(i, null);
+        if (buffer != null) {
+          return buffer;
+        }
+      }
+    }
+
+    return new byte[MIN_SIZE << sizeClass];
+  }
+
+  /**
+   * Returns the array to the pool so it can be acquired again. The arrays whose size is not one of
+   * the sizes of the classes, or whose class is full, are left to the garbage collector.
+   *
+   * @param buffer array no longer used by the caller
+   */
+  public void release(byte[] buffer) {
+    final int length = buffer.length;
+    if (length < MIN_SIZE || length > maxSize || Integer.bitCount(length) != 1) {
+      return;
+    }
+
+    final AtomicReferenceArray<byte[]> slots = classes[sizeClass(length)];
+    for (int i = 0; i < slots.length(); i++) {
+      if (slots.get(i) == null && slots.compareAndSet(i, null, buffer)) {
+        return;
+      }
+    }
+  }
+
+  private static int sizeClass(int size) {
+    return size <= MIN_SIZE ? 0 : 32 - Integer.numberOfLeadingZeros(size - 1) - MIN_SHIFT;
+  }
+
+  @Override
+  public String toString() {
+    return "BufferPool{maxSize=" + maxSize + ", buffersPerSize=" + classes[0].length() + '}';
+  }
+}
@@ -0,0 +1,374 @@
+/*
+ * Copyright © 2021 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Growable byte array to serialize the messages into. It grows the array as needed, so unlike
+ * {@link VarInt#write(int, byte[], int)} its callers need not manage the capacity, and it can be
+ * {@link #reset()} and reused for the next message without allocating a new array. The contents are
+ * exposed as a {@link Slice} over the backing array without copying.
+ *
+ * <p>The length prefixes, whose values are known only after the content is written, can be
+ * backpatched: {@link #reserve(int)} the space for the prefix, write the content, and then fill the
+ * prefix in with {@link #patchVarInt(int, int, int)}, which pads the varint to the reserved width.
+ *
+ * <p>The writer constructed with a {@link BufferPool} acquires its backing arrays from the pool,
+ * returns the outgrown ones to it as it grows, and returns the last one on {@link #close()}.
+ *
+ * <p>The fixed width integers are written in the little endian byte order. This class is not thread
+ * safe.
+ *
+ * @since 2.2.1
+ */
+public class ByteArrayWriter implements AutoCloseable {
+  public static final int DEFAULT_CAPACITY = 256;
+
+  private static final byte[] EMPTY = new byte[0];
+
+  private final BufferPool pool;
+  private byte[] buffer;
+  private int position;
+  private ByteBuffer words;
+
+  /** Constructs the writer with the backing array of {@link #DEFAULT_CAPACITY} bytes. */
+  public ByteArrayWriter() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Constructs the writer with the backing array of the given capacity.
+   *
+   * @param capacity initial capacity in bytes
+   */
+  public ByteArrayWriter(int capacity) {
+    this(new byte[capacity]);
+  }
+
+  /**
+   * Constructs the writer over the given array, e.g. one borrowed from a pool. The array is used
+   * until the writer outgrows it.
+   *
+   * @param buffer initial backing array
+   */
+  public ByteArrayWriter(byte[] buffer) {
+    this(null, buffer);
+  }
+
+  /**
+   * Constructs the writer with the backing array of at least {@link #DEFAULT_CAPACITY} bytes
+   * acquired from the pool.
+   *
+   * @param pool pool to acquire the backing arrays from and release them to
+   */
+  public ByteArrayWriter(BufferPool pool) {
+    this(pool, DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Constructs the writer with the backing array of at least the given capacity acquired from the
+   * pool.
+   *
+   * @param pool pool to acquire the backing arrays from and release them to
+   * @param capacity initial capacity in bytes
+   */
+  public ByteArrayWriter(BufferPool pool, int capacity) {
+    this(pool, pool.acquire(capacity));
+  }
+
+  private ByteArrayWriter(BufferPool pool, byte[] buffer) {
+    this.pool = pool;
+    this.buffer = buffer;
+    this.words = wrap(buffer);
+  }
+
+  private static ByteBuffer wrap(byte[] buffer) {
+    return ByteBuffer.wrap(buffer).order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  /**
+   * Makes sure that the given count of bytes can be written without growing the backing array.
+   *
+   * @param count count of the bytes
+   */
+  public void ensureCapacity(int count) {
+    final int needed = position + count;
+    if (needed - buffer.length > 0 || needed < 0) {
+      grow(needed);
+    }
+  }
+
+  private void grow(int needed) {
+    if (needed < 0) {
+      throw new IllegalStateException("Contents do not fit in a single array of 2GB.");
+    }
+
+    final int doubled = buffer.length << 1;
+    final int capacity = Math.max(needed, doubled < 0 ? Integer.MAX_VALUE - 8 : doubled);
+    if (pool == null) {
+      buffer = Arrays.copyOf(buffer, Math.max(capacity, 16));
+    } else {
+      final byte[] grown = pool.acquire(capacity);
+      System.arraycopy(buffer, 0, grown, 0, position);
+      pool.release(buffer);
+      buffer = grown;
+    }
+    words = wrap(buffer);
+  }
+
+  /**
+   * Writes the byte.
+   *
+   * @param b the byte in the lower 8 bits
+   * @return this writer
+   */
+  public ByteArrayWriter writeByte(int b) {
+    ensureCapacity(1);
+    buffer[position++] = (byte) b;
+    return this;
+  }
+
+  /**
+   * Writes the bytes.
+   *
+   * @param bytes array containing the bytes
+   * @param offset start of the bytes in the array
+   * @param length count of the bytes
+   * @return this writer
+   */
+  public ByteArrayWriter writeBytes(byte[] bytes, int offset, int length) {
+    ensureCapacity(length);
+    System.arraycopy(bytes, offset, buffer, position, length);
+    position += length;
+    return this;
+  }
+
+  /**
+   * Writes all the bytes of the array.
+   *
+   * @param bytes the bytes
+   * @return this writer
+   */
+  public ByteArrayWriter writeBytes(byte[] bytes) {
+    return writeBytes(bytes, 0, bytes.length);
+  }
+
+  /**
+   * Writes the bytes of the slice prefixed with their count as {@link VarInt}, so that they can be
+   * read back as a slice of the same length.
+   *
+   * @param slice the slice
+   * @return this writer
+   */
+  public ByteArrayWriter writeSlice(Slice slice) {
+    ensureCapacity(5 + slice.length);
+    position = VarInt.write(slice.length, buffer, position);
+    System.arraycopy(slice.buffer, slice.offset, buffer, position, slice.length);
+    position += slice.length;
+    return this;
+  }
+
+  /**
+   * Writes the integer as {@link VarInt}.
+   *
+   * @param value the integer
+   * @return this writer
+   */
+  public ByteArrayWriter writeVarInt(int value) {
+    ensureCapacity(5);
+    position = VarInt.write(value, buffer, position);
+    return this;
+  }
+
+  /**
+   * Writes the long as {@link VarInt}.
+   *
+   * @param value the long
+   * @return this writer
+   */
+  public ByteArrayWriter writeVarLong(long value) {
+    ensureCapacity(10);
+    position = VarInt.writeLong(value, buffer, position);
+    return this;
+  }
+
+  /**
+   * Writes the signed integer as zig-zag encoded {@link VarInt}.
+   *
+   * @param value the integer
+   * @return this writer
+   */
+  public ByteArrayWriter writeSignedVarInt(int value) {
+    ensureCapacity(5);
+    position = VarInt.writeSigned(value, buffer, position);
+    return this;
+  }
+
+  /**
+   * Writes the signed long as zig-zag encoded {@link VarInt}.
+   *
+   * @param value the long
+   * @return this writer
+   */
+  public ByteArrayWriter writeSignedVarLong(long value) {
+    ensureCapacity(10);
+    position = VarInt.writeSignedLong(value, buffer, position);
+    return this;
+  }
+
+  /**
+   * Writes the integer in 4 bytes in the little endian byte order.
+   *
+   * @param value the integer
+   * @return this writer
+   */
+  public ByteArrayWriter writeInt(int value) {
+    ensureCapacity(4);
+    words.putInt(position, value);
+    position += 4;
+    return this;
+  }
+
+  /**
+   * Writes the long in 8 bytes in the little endian byte order.
+   *
+   * @param value the long
+   * @return this writer
+   */
+  public ByteArrayWriter writeLong(long value) {
+    ensureCapacity(8);
+    words.putLong(position, value);
+    position += 8;
+    return this;
+  }
+
+  /**
+   * Skips the given count of bytes to be filled in later, e.g. with a length prefix.
+   *
+   * @param count count of the bytes
+   * @return position of the first byte of the reserved space
+   */
+  public int reserve(int count) {
+    ensureCapacity(count);
+    final int reserved = position;
+    position += count;
+    return reserved;
+  }
+
+  /**
+   * Writes the integer as {@link VarInt} padded to exactly the given count of bytes into the space
+   * written or reserved earlier. The padded varint is read back by all the varint readers as the
+   * same value.
+   *
+   * @param offset position of the first byte to overwrite
+   * @param value the integer
+   * @param size count of the bytes to overwrite, from 1 to 5
+   * @return this writer
+   * @throws IllegalArgumentException if the value does not fit in the given count of bytes
+   */
+  public ByteArrayWriter patchVarInt(int offset, int value, int size) {
+    if (VarInt.getSize(value) > size || size > 5) {
+      throw new IllegalArgumentException(
+          "Varint " + value + " does not fit in " + size + " bytes.");
+    }
+    if (offset < 0 || offset + size > position) {
+      throw new IndexOutOfBoundsException(
+          "offset " + offset + ", size " + size + ", position " + position);
+    }
+
+    VarInt.write(value, buffer, offset, size);
+    return this;
+  }
+
+  /**
+   * Returns the count of the bytes written since the writer was constructed or reset.
+   *
+   * @return count of the bytes
+   */
+  public int size() {
+    return position;
+  }
+
+  /** Discards the contents retaining the backing array for the subsequent writes. */
+  public void reset() {
+    position = 0;
+  }
+
+  /**
+   * Returns the slice over the contents written so far without copying them. The slice shares the
+   * backing array with the writer, so it is valid only until the writer is written to next or
+   * reset.
+   *
+   * @return slice over the contents
+   */
+  public Slice toSlice() {
+    return new Slice(buffer, 0, position);
+  }
+
+  /**
+   * Returns a copy of the contents written so far.
+   *
+   * @return array containing the contents
+   */
+  public byte[] toByteArray() {
+    return Arrays.copyOf(buffer, position);
+  }
+
+  /**
+   * Writes the contents written so far to the stream.
+   *
+   * @param out stream to write the contents to
+   * @throws IOException propagates the exceptions encountered while writing to the stream
+   */
+  public void writeTo(OutputStream out) throws IOException {
+    out.write(buffer, 0, position);
+  }
+
+  /**
+   * Returns the backing array, e.g. to return it to a pool once the writer is no longer used.
+   *
+   * @return the backing array
+   */
+  public byte[] getBuffer() {
+    return buffer;
+  }
+
+  /**
+   * Discards the contents and returns the backing array to the pool the writer was constructed
+   * with, if any. Neither the array nor the slices over it may be used afterwards. The writer
+   * itself may still be written to, in which case it acquires a new array.
+   */
+  @Override
+  public void close() {
+    if (pool != null && buffer != EMPTY) {
+      pool.release(buffer);
+    }
+
+    buffer = EMPTY;
+    words = wrap(EMPTY);
+    position = 0;
+  }
+
+  @Override
+  public String toString() {
+    return "ByteArrayWriter{size=" + position + ", capacity=" + buffer.length + '}';
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright © 2021 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.utils;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Comparison of byte array ranges 8 bytes at a time. The library targets Java 8 which does not have
+ * {@code Arrays.mismatch}, so the words are read through heap {@link ByteBuffer} views; on Java 9+
+ * such reads are intrinsified into single unaligned loads.
+ */
+final class ByteArrays {
+  /** Below this length the byte by byte loop beats the cost of setting up the word reads. */
+  private static final int WORD_THRESHOLD = 16;
+
+  private ByteArrays() {}
+
+  /**
+   * Finds the index of the first byte which differs between the two ranges of the same length.
+   *
+   * @param a first array
+   * @param aOffset start of the range in the first array
+   * @param b second array
+   * @param bOffset start of the range in the second array
+   * @param length length of both the ranges
+   * @return index relative to the start of the ranges, or -1 if the ranges are equal
+   */
+  static int mismatch(byte[] a, int aOffset, byte[] b, int bOffset, int length) {
+    int i = 0;
+    if (length >= WORD_THRESHOLD) {
+      final ByteBuffer aWords = ByteBuffer.wrap(a);
+      final ByteBuffer bWords = ByteBuffer.wrap(b);
+      final int words = length & ~7;
+      for (; i < words; i += 8) {
+        final long aWord = aWords.getLong(aOffset + i);
+        final long bWord = bWords.getLong(bOffset + i);
+        if (aWord != bWord) {
+          /* views are big endian so the first differing byte is the most significant one */
+          return i + (Long.numberOfLeadingZeros(aWord ^ bWord) >>> 3);
+        }
+      }
+    }
+
+    for (; i < length; i++) {
+      if (a[aOffset + i] != b[bOffset + i]) {
+        return i;
+      }
+    }
+
+    return -1;
+  }
+
+  /**
+   * Tests the two ranges for equality.
+   *
+   * @param a first array
+   * @param aOffset start of the range in the first array
+   * @param aLength length of the range in the first array
+   * @param b second array
+   * @param bOffset start of the range in the second array
+   * @param bLength length of the range in the second array
+   * @return true if the ranges have the same length and contents, false otherwise
+   */
+  static boolean equals(byte[] a, int aOffset, int aLength, byte[] b, int bOffset, int bLength) {
+    if (aLength != bLength) {
+      return false;
+    }
+
+    if (a == b && aOffset == bOffset) {
+      return true;
+    }
+
+    return mismatch(a, aOffset, b, bOffset, aLength) < 0;
+  }
+
+  /**
+   * Compares the two ranges lexicographically treating the bytes as unsigned values. If one range
+   * is a prefix of the other, the shorter one is the smaller one.
+   *
+   * @param a first array
+   * @param aOffset start of the range in the first array
+   * @param aLength length of the range in the first array
+   * @param b second array
+   * @param bOffset start of the range in the second array
+   * @param bLength length of the range in the second array
+   * @return negative, zero or positive integer as the first range is less than, equal to or greater
+   *     than the second range
+   */
+  static int compare(byte[] a, int aOffset, int aLength, byte[] b, int bOffset, int bLength) {
+    final int i = mismatch(a, aOffset, b, bOffset, Math.min(aLength, bLength));
+    if (i < 0) {
+      return aLength - bLength;
+    }
+
+    return (a[aOffset + i] & 0xff) - (b[bOffset + i] & 0xff);
+  }
+
+  /**
+   * Finds the index of the first byte in the range which is not a 7 bit ASCII character.
+   *
+   * @param a the array
+   * @param offset start of the range
+   * @param length length of the range
+   * @return index relative to the start of the range, or -1 if all the bytes are ASCII
+   */
+  static int nonAscii(byte[] a, int offset, int length) {
+    int i = 0;
+    if (length >= WORD_THRESHOLD) {
+      final ByteBuffer words = ByteBuffer.wrap(a);
+      final int limit = length & ~7;
+      for (; i < limit; i += 8) {
+        final long word = words.getLong(offset + i) & 0x8080808080808080L;
+        if (word != 0) {
+          return i + (Long.numberOfLeadingZeros(word) >>> 3);
+        }
+      }
+    }
+
+    for (; i < length; i++) {
+      if (a[offset + i] < 0) {
+        return i;
+      }
+    }
+
+    return -1;
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright © 2021 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * A contiguous run of bytes irrespective of where those bytes are stored. {@link Slice} keeps the
+ * bytes in a heap array whereas {@link DirectSlice} keeps them in a (typically direct) {@link
+ * java.nio.ByteBuffer}.
+ *
+ * <p>All the implementations compute {@link #hashCode()} from the contents alone, using the same
+ * seed and mixing, so the same bytes hash identically no matter which implementation holds them.
+ *
+ * @since 2.2.1
+ */
+public interface ByteSequence {
+  /**
+   * Seed used when hashing the contents of the sequence with {@link
+   * org.getopt.util.hash.MurmurHash}.
+   */
+  int HASH_SEED = 5;
+
+  /**
+   * Count of the bytes in this sequence.
+   *
+   * @return length of the sequence
+   */
+  int length();
+
+  /**
+   * Returns the byte at the given index relative to the beginning of this sequence.
+   *
+   * @param index index of the byte, between 0 and {@link #length()} - 1
+   * @return byte at the index
+   */
+  byte byteAt(int index);
+
+  /**
+   * Copies the bytes of this sequence into a new array.
+   *
+   * @return array of length {@link #length()} with the contents of the sequence
+   */
+  byte[] toByteArray();
+
+  /**
+   * Decodes the bytes of this sequence into a string using the platform's default charset.
+   *
+   * @return decoded string
+   */
+  String stringValue();
+
+  /**
+   * Decodes the bytes of this sequence into a string using the given charset. The malformed input
+   * and the unmappable characters are replaced the same way the {@link String} constructors do.
+   *
+   * @param charset charset to decode the bytes with
+   * @return decoded string
+   */
+  String stringValue(Charset charset);
+
+  /**
+   * Returns a buffer sharing the bytes of this sequence whose position is 0 and limit is {@link
+   * #length()}. The buffer is independent of this sequence, so changing its position or limit does
+   * not affect the sequence.
+   *
+   * @return buffer sharing the contents
+   */
+  ByteBuffer toByteBuffer();
+
+  /**
+   * Combines the hash of the contents of a sequence with its length in the same manner for all the
+   * implementations.
+   *
+   * @param contentHash MurmurHash of the contents computed with {@link #HASH_SEED}
+   * @param length length of the sequence
+   * @return hash code for the sequence
+   */
+  static int hashCode(int contentHash, int length) {
+    int hash = HASH_SEED;
+    hash = 59 * hash + contentHash;
+    hash = 59 * hash + length;
+    return hash;
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright © 2021 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * {@link AbstractBloomFilter} whose keys can be added and tested by multiple threads concurrently.
+ * The bits are kept in an {@link AtomicLongArray} and set with compare and swap, so no addition is
+ * lost; a key being added concurrently with the test for it may or may not be reported as present.
+ *
+ * @since 2.2.1
+ */
+public class ConcurrentBloomFilter extends AbstractBloomFilter {
+  private final AtomicLongArray bits;
+
+  /**
+   * Constructs the filter sized to keep the false positive probability at the given level once the
+   * expected number of keys is added.
+   *
+   * @param expectedInsertions expected number of keys
+   * @param fpp desired false positive probability, between 0 and 1 exclusive
+   */
+  public ConcurrentBloomFilter(long expectedInsertions, double fpp) {
+    this(
+        optimalNumBits(expectedInsertions, fpp),
+        optimalNumHashes(expectedInsertions, optimalNumBits(expectedInsertions, fpp)));
+  }
+
+  private ConcurrentBloomFilter(long numBits, int numHashes) {
+    super(numBits, numHashes);
+    bits = new AtomicLongArray(wordCount());
+  }
+
+  /**
+   * Creates the filter with the given number of bits and hash functions. It is a named factory
+   * rather than a constructor so that it cannot be confused with {@link
+   * #ConcurrentBloomFilter(long, double)}.
+   *
+   * @param numBits number of bits, rounded up to a multiple of 64
+   * @param numHashes number of hash functions
+   * @return the empty filter
+   */
+  public static ConcurrentBloomFilter withGeometry(long numBits, int numHashes) {
+    return new ConcurrentBloomFilter(numBits, numHashes);
+  }
+
+  @Override
+  boolean setBit(long index) {
+    final int word = (int) (index >>> 6);
+    final long mask = 1L << index;
+    long old;
+    do {
+      old = bits.get(word);
+      if ((old & mask) != 0) {
+        return false;
+      }
+    } while (!bits.compareAndSet(word, old, old | mask));
+
+    return true;
+  }
+
+  @Override
+  boolean getBit(long index) {
+    return (bits.get((int) (index >>> 6)) & 1L << index) != 0;
+  }
+
+  @Override
+  long getWord(int index) {
+    return bits.get(index);
+  }
+
+  @Override
+  void orWord(int index, long word) {
+    long old;
+    do {
+      old = bits.get(index);
+    } while ((old | word) != old && !bits.compareAndSet(index, old, old | word));
+  }
+
+  /**
+   * Reads the filter written by {@link #writeTo(java.io.OutputStream)}.
+   *
+   * @param in stream to read the filter from
+   * @return the filter read
+   * @throws IOException propagates the exceptions encountered while reading from the stream
+   */
+  public static ConcurrentBloomFilter readFrom(InputStream in) throws IOException {
+    return readFrom(in, ConcurrentBloomFilter::withGeometry);
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright © 2021 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * {@link AbstractCountMinSketch} whose counts can be added and estimated by multiple threads
+ * concurrently. The counters are kept in an {@link AtomicLongArray}, so no addition is lost; an
+ * estimate taken concurrently with an addition to the same key may or may not include it.
+ *
+ * @since 2.2.1
+ */
+public class ConcurrentCountMinSketch extends AbstractCountMinSketch {
+  private final AtomicLongArray counters;
+  private final AtomicLong total;
+
+  /**
+   * Constructs the sketch whose estimates overcount by no more than epsilon times the total count
+   * with the probability of at least 1 - delta.
+   *
+   * @param epsilon the fraction of the total count, between 0 and 1 exclusive
+   * @param delta probability of exceeding the bound, between 0 and 1 exclusive
+   */
+  public ConcurrentCountMinSketch(double epsilon, double delta) {
+    this(optimalDepth(delta), optimalWidth(epsilon));
+  }
+
+  /**
+   * Constructs the sketch with the given dimensions.
+   *
+   * @param depth number of rows
+   * @param width number of counters in each row
+   */
+  public ConcurrentCountMinSketch(int depth, int width) {
+    super(depth, width);
+    counters = new AtomicLongArray(depth * width);
+    total = new AtomicLong();
+  }
+
+  @Override
+  void addCounter(int index, long count) {
+    counters.addAndGet(index, count);
+  }
+
+  @Override
+  long getCounter(int index) {
+    return counters.get(index);
+  }
+
+  @Override
+  void addTotal(long count) {
+    total.addAndGet(count);
+  }
+
+  @Override
+  public long getTotalCount() {
+    return total.get();
+  }
+
+  /**
+   * Reads the sketch written by {@link #writeTo(java.io.OutputStream)}.
+   *
+   * @param in stream to read the sketch from
+   * @return the sketch read
+   * @throws IOException propagates the exceptions encountered while reading from the stream
+   */
+  public static ConcurrentCountMinSketch readFrom(InputStream in) throws IOException {
+    return readFrom(in, ConcurrentCountMinSketch::new);
+  }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright © 2021 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.getopt.util.hash.MurmurHash3;
+
+/**
+ * Consistent hash ring routing the keys to the nodes. Each node is placed on the ring at a number
+ * of points, the virtual nodes, proportional to its weight, and a key is routed to the node owning
+ * the first point at or after the hash of the key. When a node is added or removed, only the keys
+ * falling between its points and their predecessors move.
+ *
+ * <p>The points are the 64 bit MurmurHash3 of the UTF-8 encoding of {@code node + "#" + i} for each
+ * virtual node i, so the nodes must have stable {@link Object#toString()} representations which are
+ * distinct from each other; the placement is then the same in every process. The keys are hashed
+ * with the same function.
+ *
+ * <p>The points are kept in a sorted {@code long[]} searched with binary search, so the lookups
+ * take O(log n) time and allocate nothing. The lookups are lock free and may run concurrently with
+ * the changes of membership, which rebuild the arrays and publish them at once.
+ *
+ * @param <N> type of the nodes
+ * @since 2.2.1
+ */
+public class ConsistentHashRing<N> {
+  /** Default number of the virtual nodes per unit of weight. */
+  public static final int DEFAULT_VIRTUAL_NODES = 160;
+
+  private final int virtualNodes;
+  private final Map<N, Integer> weights;
+  private volatile Points points;
+
+  /** Sorted points along with the nodes owning them. */
+  private static class Points {
+    final long[] hashes;
+    final Object[] owners;
+
+    Points(long[] hashes, Object[] owners) {
+      this.hashes = hashes;
+      this.owners = owners;
+    }
+  }
+
+  /** Constructs the ring with {@link #DEFAULT_VIRTUAL_NODES} virtual nodes per unit of weight. */
+  public ConsistentHashRing() {
+    this(DEFAULT_VIRTUAL_NODES);
+  }
+
+  /**
+   * Constructs the ring with the given number of virtual nodes per unit of weight. More virtual
+   * nodes spread the keys more evenly at the cost of memory.
+   *
+   * @param virtualNodes number of the points per unit of weight
+   */
+  public ConsistentHashRing(int virtualNodes) {
+    if (virtualNodes <= 0) {
+      throw new IllegalArgumentException(
+          "Number of virtual nodes must be positive: " + virtualNodes);
+    }
+
+    this.virtualNodes = virtualNodes;
+    this.weights = new LinkedHashMap<>();
+    this.points = new Points(new long[0], new Object[0]);
+  }
+
+  /**
+   * Adds the node with the weight of 1.
+   *
+   * @param node node to be added
+   * @return true if the node was added, false if it was already present
+   */
+  public boolean add(N node) {
+    return add(node, 1);
+  }
+
+  /**
+   * Adds the node which receives the share of the keys proportional to the given weight.
+   *
+   * @param node node to be added
+   * @param weight positive weight of the node
+   * @return true if the node was added, false if it was already present
+   */
+  public synchronized boolean add(N node, int weight) {
+    if (weight <= 0) {
+      throw new IllegalArgumentException("Weight must be positive: " + weight);
+    }
+    if (weights.containsKey(node)) {
+      return false;
+    }
+
+    final int count = Math.multiplyExact(weight, virtualNodes);
+    final long[] added = new long[count];
+    for (int i = 0; i < count; i++) {
+      final byte[] name = (node + "#" + i).getBytes(StandardCharsets.UTF_8);
+      added[i] = MurmurHash3.hash64(name, 0, 0, name.length);
+    }
+    Arrays.sort(added);
+
+    /* merge the sorted points of the node into the sorted points of the ring */
+    final Points current = points;
+    final int size = current.hashes.length;
+    final long[] hashes = new long[size + count];
+    final Object[] owners = new Object[size + count];
+    for (int i = 0, j = 0, k = 0; k < hashes.length; k++) {
+      if (j == count || i < size && current.hashes[i] <= added[j]) {
+        hashes[k] = current.hashes[i];
+        owners[k] = current.owners[i++];
+      } else {
+        hashes[k] = added[j++];
+        owners[k] = node;
+      }
+    }
+
+    weights.put(node, weight);
+    points = new Points(hashes, owners);
+    return true;
+  }
+
+  /**
+   * Removes the node; its keys are routed to the nodes owning the following points.
+   *
+   * @param node node to be removed
+   * @return true if the node was removed, false if it was not present
+   */
+  public synchronized boolean remove(N node) {
+    final Integer weight = weights.remove(node);
+    if (weight == null) {
+      return false;
+    }
+
+    final Points current = points;
+    final int size = current.hashes.length - weight * virtualNodes;
+    final long[] hashes = new long[size];
+    final Object[] owners = new Object[size];
+    for (int i = 0, k = 0; k < size; i++) {
+      if (!node.equals(current.owners[i])) {
+        hashes[k] = current.hashes[i];
+        owners[k++] = current.owners[i];
+      }
+    }
+
+    points = new Points(hashes, owners);
+    return true;
+  }
+
+  /**
+   * Routes the hash of a key to a node.
+   *
+   * @param hash 64 bit hash of the key
+   * @return node owning the key, or null if the ring is empty
+   */
+  @SuppressWarnings("unchecked")
+  public N get(long hash) {
+    final Points points = this.points;
+    final long[] hashes = points.hashes;
+    if (hashes.length == 0) {
+      return null;
+    }
+
+    int index = Arrays.binarySearch(hashes, hash);
+    if (index < 0) {
+      index = -index - 1;
+      if (index == hashes.length) {
+        index = 0;
+      }
+    }
+
+    return (N) points.owners[index];
+  }
+
+  /**
+   * Routes the key formed by the bytes to a node.
+   *
+   * @param data array containing the key
+   * @param offset start of the key in the array
+   * @param length length of the key
+   * @return node owning the key, or null if the ring is empty
+   */
+  public N get(byte[] data, int offset, int length) {
+    return get(MurmurHash3.hash64(data, 0, offset, length));
+  }
+
+  /**
+   * Routes the key formed by the bytes of the slice to a node.
+   *
+   * @param key the key
+   * @return node owning the key, or null if the ring is empty
+   */
+  public N get(Slice key) {
+    return get(key.buffer, key.offset, key.length);
+  }
+
+  /**
+   * Returns the nodes along with their weights in the order they were added.
+   *
+   * @return unmodifiable snapshot of the nodes and their weights
+   */
+  public synchronized Map<N, Integer> getNodes() {
+    return Collections.unmodifiableMap(new LinkedHashMap<>(weights));
+  }
+
+  /**
+   * Returns the count of the nodes.
+   *
+   * @return count of the nodes
+   */
+  public synchronized int size() {
+    return weights.size();
+  }
+}
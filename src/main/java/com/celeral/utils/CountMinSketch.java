@@ -0,0 +1,90 @@
+/*
+ * Copyright © 2021 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * {@link AbstractCountMinSketch} keeping its counters in a {@code long[]}. It is not thread safe;
+ * use {@link ConcurrentCountMinSketch} when the counts are added by multiple threads.
+ *
+ * @since 2.2.1
+ */
+public class CountMinSketch extends AbstractCountMinSketch {
+  private final long[] counters;
+  private long total;
+
+  /**
+   * Constructs the sketch whose estimates overcount by no more than epsilon times the total count
+   * with the probability of at least 1 - delta.
+   *
+   * @param epsilon the fraction of the total count, between 0 and 1 exclusive
+   * @param delta probability of exceeding the bound, between 0 and 1 exclusive
+   */
+  public CountMinSketch(double epsilon, double delta) {
+    this(optimalDepth(delta), optimalWidth(epsilon));
+  }
+
+  /**
+   * Constructs the sketch with the given dimensions.
+   *
+   * @param depth number of rows
+   * @param width number of counters in each row
+   */
+  public CountMinSketch(int depth, int width) {
+    super(depth, width);
+    counters = new long[depth * width];
+  }
+
+  @Override
+  void addCounter(int index, long count) {
+    counters[index] += count;
+  }
+
+  @Override
+  long getCounter(int index) {
+    return counters[index];
+  }
+
+  @Override
+  void addTotal(long count) {
+    total += count;
+  }
+
+  @Override
+  public long getTotalCount() {
+    return total;
+  }
+
+  /** Resets all the counts to zero. */
+  public void clear() {
+    Arrays.fill(counters, 0);
+    total = 0;
+  }
+
+  /**
+   * Reads the sketch written by {@link #writeTo(java.io.OutputStream)}.
+   *
+   * @param in stream to read the sketch from
+   * @return the sketch read
+   * @throws IOException propagates the exceptions encountered while reading from the stream
+   */
+  public static CountMinSketch readFrom(InputStream in) throws IOException {
+    return readFrom(in, CountMinSketch::new);
+  }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright © 2021 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.utils;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import org.getopt.util.hash.MurmurHash;
+
+/**
+ * Off-heap sibling of {@link Slice}. It is a window of {@code length} bytes starting at the
+ * absolute index {@code offset} in a {@link ByteBuffer}, typically a direct one received from the
+ * network. The bytes are accessed using absolute indexing, so neither the position nor the limit of
+ * the buffer is consulted or modified by any of the methods of this class.
+ *
+ * <p>The hash code is computed exactly the way {@link Slice#hashCode()} is, so a {@link Slice} and
+ * a {@link DirectSlice} exposing the same bytes have the same hash code. They are never equal to
+ * each other though; a {@link DirectSlice} is only equal to another {@link DirectSlice}.
+ *
+ * @since 2.2.1
+ */
+public class DirectSlice implements ByteSequence {
+  public ByteBuffer buffer;
+  public int offset;
+  public int length;
+
+  public DirectSlice(ByteBuffer buffer, int offset, int length) {
+    this.buffer = buffer;
+    this.offset = offset;
+    this.length = length;
+  }
+
+  /**
+   * Creates a slice over the remaining bytes of the buffer i.e. the bytes between its current
+   * position and its limit.
+   *
+   * @param buffer buffer whose remaining bytes are exposed
+   */
+  public DirectSlice(ByteBuffer buffer) {
+    this(buffer, buffer.position(), buffer.remaining());
+  }
+
+  @Override
+  public int length() {
+    return length;
+  }
+
+  @Override
+  public byte byteAt(int index) {
+    return buffer.get(offset + index);
+  }
+
+  @Override
+  public int hashCode() {
+    return ByteSequence.hashCode(MurmurHash.hash(buffer, HASH_SEED, offset, length), length);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj == this) {
+      return true;
+    }
+    if (obj == null) {
+      return false;
+    }
+    if (getClass() != obj.getClass()) {
+      return false;
+    }
+    final DirectSlice other = (DirectSlice) obj;
+    if (this.length != other.length) {
+      return false;
+    }
+
+    final ByteBuffer buffer1 = this.buffer;
+    final ByteBuffer buffer2 = other.buffer;
+    int i = this.offset;
+    int j = other.offset;
+
+    /*
+     * each buffer reads the words in its own byte order, which does not matter for equality as long
+     * as the orders are the same; otherwise only the bytes can be compared
+     */
+    final int longs = buffer1.order() == buffer2.order() ? i + (length & ~7) : i;
+    while (i < longs) {
+      if (buffer1.getLong(i) != buffer2.getLong(j)) {
+        return false;
+      }
+      i += 8;
+      j += 8;
+    }
+
+    final int end = this.offset + length;
+    while (i < end) {
+      if (buffer1.get(i++) != buffer2.get(j++)) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  @Override
+  public ByteBuffer toByteBuffer() {
+    ByteBuffer duplicate = buffer.duplicate();
+    /* cast to Buffer to remain binary compatible with Java 8 */
+    ((Buffer) duplicate).limit(offset + length);
+    ((Buffer) duplicate).position(offset);
+    return duplicate.slice();
+  }
+
+  @Override
+  public byte[] toByteArray() {
+    byte[] bytes = new byte[length];
+    ByteBuffer duplicate = buffer.duplicate();
+    ((Buffer) duplicate).position(offset);
+    duplicate.get(bytes);
+    return bytes;
+  }
+
+  /**
+   * Decodes the bytes of the slice using the platform's default charset, replacing the malformed
+   * input the same way the {@link String} constructors do.
+   *
+   * @return the decoded string
+   */
+  @Override
+  public String stringValue() {
+    return Charset.defaultCharset().decode(toByteBuffer()).toString();
+  }
+
+  @Override
+  public String stringValue(Charset charset) {
+    return charset.decode(toByteBuffer()).toString();
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder(getClass().getSimpleName()).append('{');
+    if (length > 256) {
+      sb.append("buffer=")
+          .append(buffer)
+          .append(", offset=")
+          .append(offset)
+          .append(", length=")
+          .append(length);
+    } else {
+      sb.append('[');
+      for (int i = 0; i < length; i++) {
+        if (i > 0) {
+          sb.append(", ");
+        }
+        sb.append(buffer.get(offset + i));
+      }
+      sb.append(']');
+    }
+    return sb.append('}').toString();
+  }
+}
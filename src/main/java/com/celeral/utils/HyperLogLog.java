@@ -0,0 +1,220 @@
+/*
+ * Copyright © 2021 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.utils;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.util.Arrays;
+
+import org.getopt.util.hash.MurmurHash3;
+
+/**
+ * HyperLogLog estimator of the count of the distinct keys, see "HyperLogLog: the analysis of a
+ * near-optimal cardinality estimation algorithm" by Flajolet et al. It uses 2^precision registers
+ * of one byte each, i.e. 16KB at the default precision of 14, regardless of the count of the keys,
+ * and the standard error of its estimates is about 1.04 / sqrt(2^precision), i.e. 0.8% at the
+ * default precision.
+ *
+ * <p>Following HyperLogLog++ by Heule et al., the keys are hashed with the 64 bit MurmurHash3, so
+ * no correction is needed for the large cardinalities, and the small cardinalities are estimated
+ * with linear counting.
+ *
+ * <p>The estimators of the same precision can be merged, e.g. to combine the estimators filled by
+ * different threads or nodes into the estimate of the union. This class is not thread safe.
+ *
+ * @since 2.2.1
+ */
+public class HyperLogLog {
+  public static final int MIN_PRECISION = 4;
+  public static final int MAX_PRECISION = 18;
+  public static final int DEFAULT_PRECISION = 14;
+
+  private final int precision;
+  private final byte[] registers;
+
+  /** Constructs the estimator with the {@link #DEFAULT_PRECISION}. */
+  public HyperLogLog() {
+    this(DEFAULT_PRECISION);
+  }
+
+  /**
+   * Constructs the estimator with the given precision.
+   *
+   * @param precision binary logarithm of the count of the registers, from {@link #MIN_PRECISION} to
+   *     {@link #MAX_PRECISION}
+   */
+  public HyperLogLog(int precision) {
+    if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+      throw new IllegalArgumentException("Precision out of range: " + precision);
+    }
+
+    this.precision = precision;
+    this.registers = new byte[1 << precision];
+  }
+
+  /**
+   * Adds the key formed by the bytes.
+   *
+   * @param data array containing the key
+   * @param offset start of the key in the array
+   * @param length length of the key
+   * @return true if the estimate may have changed, false if it definitely did not
+   */
+  public boolean add(byte[] data, int offset, int length) {
+    return addHash(MurmurHash3.hash64(data, 0, offset, length));
+  }
+
+  /**
+   * Adds the key formed by the bytes of the slice.
+   *
+   * @param key the key
+   * @return true if the estimate may have changed, false if it definitely did not
+   */
+  public boolean add(Slice key) {
+    return add(key.buffer, key.offset, key.length);
+  }
+
+  /**
+   * Adds the key by its 64 bit hash, for the callers which already hashed the key. The hashes must
+   * be uniformly distributed over all the 64 bits.
+   *
+   * @param hash hash of the key
+   * @return true if the estimate may have changed, false if it definitely did not
+   */
+  public boolean addHash(long hash) {
+    final int index = (int) (hash >>> (64 - precision));
+    /* the marker bit caps the rank when the remaining bits are all zero */
+    final int rank = Long.numberOfLeadingZeros(hash << precision | 1L << (precision - 1)) + 1;
+    if (rank > registers[index]) {
+      registers[index] = (byte) rank;
+      return true;
+    }
+
+    return false;
+  }
+
+  /**
+   * Estimates the count of the distinct keys added.
+   *
+   * @return the estimate
+   */
+  public long cardinality() {
+    final int m = registers.length;
+    double sum = 0;
+    int zeros = 0;
+    for (byte register : registers) {
+      sum += Double.longBitsToDouble((1023L - register) << 52);
+      if (register == 0) {
+        zeros++;
+      }
+    }
+
+    final double estimate = alpha(m) * m * m / sum;
+    if (estimate <= 2.5 * m && zeros > 0) {
+      return Math.round(m * Math.log((double) m / zeros));
+    }
+
+    return Math.round(estimate);
+  }
+
+  private static double alpha(int m) {
+    switch (m) {
+      case 16:
+        return 0.673;
+      case 32:
+        return 0.697;
+      case 64:
+        return 0.709;
+      default:
+        return 0.7213 / (1 + 1.079 / m);
+    }
+  }
+
+  /**
+   * Merges the other estimator into this one, so that this one estimates the count of the distinct
+   * keys added to either of them.
+   *
+   * @param other estimator of the same precision
+   */
+  public void merge(HyperLogLog other) {
+    if (other.precision != precision) {
+      throw new IllegalArgumentException(
+          "Incompatible precisions " + precision + " and " + other.precision);
+    }
+
+    final byte[] registers = this.registers;
+    final byte[] others = other.registers;
+    for (int i = 0; i < registers.length; i++) {
+      if (others[i] > registers[i]) {
+        registers[i] = others[i];
+      }
+    }
+  }
+
+  /** Forgets all the keys added. */
+  public void clear() {
+    Arrays.fill(registers, (byte) 0);
+  }
+
+  public int getPrecision() {
+    return precision;
+  }
+
+  /**
+   * Writes the estimator in a compact binary form: the precision as a byte followed by the
+   * registers, one byte each.
+   *
+   * @param out stream to write the estimator to
+   * @throws IOException propagates the exceptions encountered while writing to the stream
+   */
+  public void writeTo(OutputStream out) throws IOException {
+    out.write(precision);
+    out.write(registers);
+  }
+
+  /**
+   * Reads the estimator written by {@link #writeTo(OutputStream)}.
+   *
+   * @param in stream to read the estimator from
+   * @return the estimator read
+   * @throws IOException propagates the exceptions encountered while reading from the stream
+   */
+  public static HyperLogLog readFrom(InputStream in) throws IOException {
+    final DataInputStream data = new DataInputStream(in);
+    final int precision = data.readUnsignedByte();
+    if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+      throw new StreamCorruptedException("Invalid HyperLogLog precision " + precision);
+    }
+
+    final HyperLogLog hll = new HyperLogLog(precision);
+    data.readFully(hll.registers);
+    for (byte register : hll.registers) {
+      if (register < 0 || register > 65 - precision) {
+        throw new StreamCorruptedException("Invalid HyperLogLog register " + register);
+      }
+    }
+
+    return hll;
+  }
+
+  @Override
+  public String toString() {
+    return "HyperLogLog{precision=" + precision + ", cardinality=" + cardinality() + '}';
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright © 2021 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.utils;
+
+/**
+ * A {@link Slice} which promises not to change, and in return computes its hash code only once.
+ * Useful as a key of hash based collections where large keys are otherwise rehashed on every lookup
+ * and on every resize.
+ *
+ * <p>The hash code is computed when the slice is constructed. Java does not allow the inherited
+ * public fields {@code buffer}, {@code offset} and {@code length} to be made final, so the promise
+ * is a contract with the user: neither the fields nor the bytes they point at may be changed while
+ * the slice is in use. If they have to be changed anyway, {@link #rehash()} must be called before
+ * the slice is used again, and never while the slice is a key in a hash based collection.
+ *
+ * <p>An immutable slice is equal to a {@link Slice} with the same contents and has the same hash
+ * code as long as the contract above is honored.
+ *
+ * @since 2.2.1
+ */
+public class ImmutableSlice extends Slice {
+  private int hash;
+
+  public ImmutableSlice(byte[] array, int offset, int length) {
+    super(array, offset, length);
+    hash = super.hashCode();
+  }
+
+  public ImmutableSlice(byte[] array) {
+    super(array);
+    hash = super.hashCode();
+  }
+
+  /**
+   * Creates an immutable slice sharing the window of the given slice.
+   *
+   * @param slice slice whose buffer, offset and length are shared
+   */
+  public ImmutableSlice(Slice slice) {
+    this(slice.buffer, slice.offset, slice.length);
+  }
+
+  /**
+   * Recomputes the cached hash code after the fields or the contents of the slice are changed.
+   *
+   * @return the new hash code
+   */
+  public int rehash() {
+    return hash = super.hashCode();
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  @Override
+  public ImmutableSlice clone() throws CloneNotSupportedException {
+    return (ImmutableSlice) super.clone();
+  }
+
+  private static final long serialVersionUID = 202610171200L;
+}
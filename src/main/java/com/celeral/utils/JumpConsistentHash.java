@@ -0,0 +1,81 @@
+/*
+ * Copyright © 2021 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.utils;
+
+import org.getopt.util.hash.MurmurHash3;
+
+/**
+ * Jump consistent hash by John Lamping and Eric Veach, see https://arxiv.org/abs/1406.2294. It maps
+ * the keys to the buckets numbered from 0 to n - 1 evenly, using no memory and no allocation. When
+ * the number of buckets grows from n to n + 1, only 1 / (n + 1) of the keys move, and all of them
+ * to the new bucket.
+ *
+ * <p>Unlike {@link ConsistentHashRing}, the buckets can only be added or removed at the end of the
+ * range, so it suits the shards which are numbered rather than the nodes which come and go.
+ *
+ * @since 2.2.1
+ */
+public final class JumpConsistentHash {
+  private JumpConsistentHash() {}
+
+  /**
+   * Maps the 64 bit key to a bucket.
+   *
+   * @param key well distributed key, typically a hash
+   * @param buckets number of buckets
+   * @return bucket between 0 inclusive and buckets exclusive
+   */
+  public static int bucket(long key, int buckets) {
+    if (buckets <= 0) {
+      throw new IllegalArgumentException("Number of buckets must be positive: " + buckets);
+    }
+
+    long b = -1;
+    long j = 0;
+    while (j < buckets) {
+      b = j;
+      key = key * 2862933555777941757L + 1;
+      j = (long) ((b + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+    }
+
+    return (int) b;
+  }
+
+  /**
+   * Maps the bytes to a bucket using the 64 bit MurmurHash3 of the bytes as the key.
+   *
+   * @param data array containing the bytes
+   * @param offset start of the bytes in the array
+   * @param length count of the bytes
+   * @param buckets number of buckets
+   * @return bucket between 0 inclusive and buckets exclusive
+   */
+  public static int bucket(byte[] data, int offset, int length, int buckets) {
+    return bucket(MurmurHash3.hash64(data, 0, offset, length), buckets);
+  }
+
+  /**
+   * Maps the bytes of the slice to a bucket.
+   *
+   * @param key the key
+   * @param buckets number of buckets
+   * @return bucket between 0 inclusive and buckets exclusive
+   * @see #bucket(byte[], int, int, int)
+   */
+  public static int bucket(Slice key, int buckets) {
+    return bucket(key.buffer, key.offset, key.length, buckets);
+  }
+}
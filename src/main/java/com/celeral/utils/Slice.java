@@ -15,12 +15,30 @@
  */
 package com.celeral.utils;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 import org.getopt.util.hash.MurmurHash;
 
-public class Slice implements Serializable, Cloneable {
+/**
+ * A window of {@code length} bytes starting at {@code offset} in a heap byte array. The fields are
+ * public so that the window can be repositioned without creating a new object.
+ *
+ * <p>The equality and the hash code of a slice depend only on the bytes visible through the window,
+ * so two slices over different arrays or at different offsets are equal when they expose the same
+ * bytes. The slices are ordered lexicographically by their unsigned bytes.
+ */
+public class Slice implements ByteSequence, Comparable<Slice>, Serializable, Cloneable {
   public byte[] buffer;
   public int offset;
   public int length;
@@ -42,42 +60,204 @@ public class Slice implements Serializable, Cloneable {
     this.length = array.length;
   }
 
+  @Override
+  public int length() {
+    return length;
+  }
+
+  @Override
+  public byte byteAt(int index) {
+    return buffer[offset + index];
+  }
+
   @Override
   public int hashCode() {
-    int hash = 5;
-    hash = 59 * hash + MurmurHash.hash(buffer, hash, offset, length);
-    hash = 59 * hash + this.offset;
-    hash = 59 * hash + this.length;
-    return hash;
+    return ByteSequence.hashCode(MurmurHash.hash(buffer, HASH_SEED, offset, length), length);
   }
 
   @Override
   public boolean equals(Object obj) {
-    if (obj == null) {
-      return false;
+    if (obj == this) {
+      return true;
     }
-    if (getClass() != obj.getClass()) {
+    if (!(obj instanceof Slice)) {
       return false;
     }
     final Slice other = (Slice) obj;
-    if (this.length != other.length) {
-      return false;
+    return ByteArrays.equals(buffer, offset, length, other.buffer, other.offset, other.length);
+  }
+
+  /**
+   * Compares the bytes of the slices lexicographically treating them as unsigned values. If one
+   * slice is a prefix of the other, the shorter one is ordered first. The ordering is consistent
+   * with {@link #equals(Object)}.
+   *
+   * @param other slice to compare with
+   * @return negative, zero or positive integer as this slice is less than, equal to or greater than
+   *     the other slice
+   */
+  @Override
+  public int compareTo(Slice other) {
+    return ByteArrays.compare(buffer, offset, length, other.buffer, other.offset, other.length);
+  }
+
+  /**
+   * Returns a view of the bytes of this slice between the given indexes. The view shares the buffer
+   * with this slice.
+   *
+   * @param start index of the first byte of the view relative to this slice, inclusive
+   * @param end index of the last byte of the view relative to this slice, exclusive
+   * @return new slice over the same buffer
+   * @throws IndexOutOfBoundsException if the indexes are outside this slice or start is greater
+   *     than end
+   */
+  public Slice subSlice(int start, int end) {
+    if (start < 0 || end > length || start > end) {
+      throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+    }
+
+    return new Slice(buffer, offset + start, end - start);
+  }
+
+  /**
+   * Finds the first occurrence of the byte in this slice.
+   *
+   * @param b byte to be found
+   * @return index of the byte relative to this slice, or -1 if the byte is not found
+   */
+  public int indexOf(byte b) {
+    return indexOf(b, 0);
+  }
+
+  /**
+   * Finds the first occurrence of the byte in this slice at or after the given index.
+   *
+   * @param b byte to be found
+   * @param fromIndex index relative to this slice to start the search from
+   * @return index of the byte relative to this slice, or -1 if the byte is not found
+   */
+  public int indexOf(byte b, int fromIndex) {
+    final byte[] buffer = this.buffer;
+    /* clamped before adding the offset lest it overflows */
+    fromIndex = Math.min(Math.max(fromIndex, 0), length);
+    for (int i = offset + fromIndex, end = offset + length; i < end; i++) {
+      if (buffer[i] == b) {
+        return i - offset;
+      }
+    }
+
+    return -1;
+  }
+
+  /**
+   * Finds the first occurrence of the bytes of the given slice in this slice.
+   *
+   * @param needle bytes to be found
+   * @return index of the first byte of the occurrence relative to this slice, or -1 if not found
+   */
+  public int indexOf(Slice needle) {
+    return indexOf(needle, 0);
+  }
+
+  /**
+   * Finds the first occurrence of the bytes of the given slice in this slice at or after the given
+   * index. Like {@link String#indexOf(String, int)}, it scans for the first byte of the needle and
+   * only then compares the rest of the needle, a word at a time.
+   *
+   * @param needle bytes to be found
+   * @param fromIndex index relative to this slice to start the search from
+   * @return index of the first byte of the occurrence relative to this slice, or -1 if not found
+   */
+  public int indexOf(Slice needle, int fromIndex) {
+    fromIndex = Math.max(fromIndex, 0);
+    final int needleLength = needle.length;
+    if (needleLength == 0) {
+      return fromIndex <= length ? fromIndex : -1;
     }
 
-    final int offset1 = this.offset;
-    final byte[] buffer1 = this.buffer;
-    int i = offset1 + this.length;
+    if (fromIndex > length - needleLength) {
+      return -1;
+    }
 
-    final byte[] buffer2 = other.buffer;
-    int j = other.offset + other.length;
+    final byte[] buffer = this.buffer;
+    final byte[] needleBuffer = needle.buffer;
+    final int needleOffset = needle.offset;
+    final byte first = needleBuffer[needleOffset];
+    final int rest = needleLength - 1;
 
-    while (i-- > offset1) {
-      if (buffer1[i] != buffer2[--j]) {
-        return false;
+    for (int i = offset + fromIndex, last = offset + length - needleLength; i <= last; i++) {
+      if (buffer[i] == first
+          && ByteArrays.mismatch(buffer, i + 1, needleBuffer, needleOffset + 1, rest) < 0) {
+        return i - offset;
       }
     }
 
-    return true;
+    return -1;
+  }
+
+  /**
+   * Tests if this slice begins with the bytes of the given slice.
+   *
+   * @param prefix the prefix
+   * @return true if this slice starts with the prefix, false otherwise
+   */
+  public boolean startsWith(Slice prefix) {
+    return prefix.length <= length
+        && ByteArrays.mismatch(buffer, offset, prefix.buffer, prefix.offset, prefix.length) < 0;
+  }
+
+  /**
+   * Tests if this slice ends with the bytes of the given slice.
+   *
+   * @param suffix the suffix
+   * @return true if this slice ends with the suffix, false otherwise
+   */
+  public boolean endsWith(Slice suffix) {
+    return suffix.length <= length
+        && ByteArrays.mismatch(
+                buffer,
+                offset + length - suffix.length,
+                suffix.buffer,
+                suffix.offset,
+                suffix.length)
+            < 0;
+  }
+
+  /**
+   * Lazily splits this slice around the given delimiter. Each of the fields is a view sharing the
+   * buffer with this slice and is created only when the iteration reaches it. Unlike {@link
+   * String#split(String)}, the empty fields are retained, so a slice containing n delimiters always
+   * yields n + 1 fields.
+   *
+   * @param delimiter byte separating the fields
+   * @return iterable over the fields
+   */
+  public Iterable<Slice> split(byte delimiter) {
+    return () ->
+        new Iterator<Slice>() {
+          private int start;
+
+          @Override
+          public boolean hasNext() {
+            return start <= length;
+          }
+
+          @Override
+          public Slice next() {
+            if (start > length) {
+              throw new NoSuchElementException();
+            }
+
+            int end = indexOf(delimiter, start);
+            if (end < 0) {
+              end = length;
+            }
+
+            final Slice field = new Slice(buffer, offset + start, end - start);
+            start = end + 1;
+            return field;
+          }
+        };
   }
 
   /**
@@ -93,6 +273,7 @@ public class Slice implements Serializable, Cloneable {
     return clone;
   }
 
+  @Override
   public byte[] toByteArray() {
     return Arrays.copyOfRange(this.buffer, this.offset, this.offset + this.length);
   }
@@ -104,10 +285,40 @@ public class Slice implements Serializable, Cloneable {
    *
    * @return the string object backed by the array.
    */
+  @Override
   public String stringValue() {
     return new String(buffer, offset, length);
   }
 
+  /**
+   * Constructs a new {@code String} by decoding the bytes using the given charset. Unlike {@link
+   * #stringValue()}, the result does not depend on the platform the code runs on.
+   *
+   * <p>The bytes are copied to the string as they are, without running the decoder, when the
+   * charset is ISO-8859-1 or when it is US-ASCII or UTF-8 and all the bytes are ASCII characters.
+   *
+   * @param charset charset to decode the bytes with
+   * @return the decoded string
+   */
+  @Override
+  public String stringValue(Charset charset) {
+    if (StandardCharsets.ISO_8859_1.equals(charset)
+        || (StandardCharsets.UTF_8.equals(charset) || StandardCharsets.US_ASCII.equals(charset))
+            && ByteArrays.nonAscii(buffer, offset, length) < 0) {
+      /* every byte maps to the char with the same value; no need to decode */
+      @SuppressWarnings("deprecation")
+      final String string = new String(buffer, 0, offset, length);
+      return string;
+    }
+
+    return new String(buffer, offset, length, charset);
+  }
+
+  @Override
+  public ByteBuffer toByteBuffer() {
+    return ByteBuffer.wrap(buffer, offset, length).slice();
+  }
+
   @Override
   @SuppressWarnings("ImplicitArrayToString")
   public String toString() {
@@ -119,5 +330,45 @@ public class Slice implements Serializable, Cloneable {
         + '}';
   }
 
-  private static final long serialVersionUID = 201311151835L;
+  /**
+   * Writes only the visible bytes of the slice prefixed with their count encoded as {@link VarInt}
+   * rather than the whole backing buffer along with the offset.
+   *
+   * @param out stream to write the slice to
+   * @throws IOException propagates the exceptions encountered while writing to the stream
+   * @serialData count of the bytes as varint followed by the bytes
+   */
+  private void writeObject(ObjectOutputStream out) throws IOException {
+    out.defaultWriteObject();
+    VarInt.write(length, out);
+    out.write(buffer, offset, length);
+  }
+
+  /**
+   * Reads the bytes written by {@link #writeObject(ObjectOutputStream)} into a right-sized array.
+   *
+   * @param in stream to read the slice from
+   * @throws IOException propagates the exceptions encountered while reading from the stream
+   * @throws ClassNotFoundException never; declared to satisfy the serialization contract
+   */
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    final int count = VarInt.read(in);
+    if (count < 0) {
+      throw new InvalidObjectException("Negative length " + count + " of the slice.");
+    }
+
+    buffer = new byte[count];
+    in.readFully(buffer);
+    offset = 0;
+    length = count;
+  }
+
+  /**
+   * The fields are written by {@link #writeObject(ObjectOutputStream)}; they are not declared
+   * transient so the serializers which work with the fields directly continue to see them.
+   */
+  private static final ObjectStreamField[] serialPersistentFields = {};
+
+  private static final long serialVersionUID = 202610171400L;
 }
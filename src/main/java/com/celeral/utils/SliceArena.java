@@ -0,0 +1,171 @@
+/*
+ * Copyright © 2021 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.utils;
+
+import java.util.ArrayList;
+
+/**
+ * Allocator which carves slices out of large shared chunks instead of allocating an array per
+ * slice. It is meant for decoders producing many small and short lived payloads: the slices are
+ * allocated one after another from the current chunk and are all released together with {@link
+ * #release()}, after which the chunks are reused for the subsequent allocations.
+ *
+ * <p>The slices allocated before {@link #release()} must not be used after it, as their bytes will
+ * be overwritten by the subsequent allocations. The bytes of an allocated slice are not cleared, so
+ * they may contain the data from the earlier allocations until they are written to. Requests larger
+ * than a quarter of the chunk size are satisfied with a dedicated array to avoid wasting the space
+ * left in the current chunk.
+ *
+ * <p>This class is not thread safe; typically each decoder thread owns its own arena.
+ *
+ * @since 2.2.1
+ */
+public class SliceArena implements AutoCloseable {
+  public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+  private static final byte[] EMPTY = new byte[0];
+
+  private final int chunkSize;
+  private final ArrayList<byte[]> chunks;
+  private int chunkIndex;
+  private byte[] chunk;
+  private int position;
+
+  /** Constructs the arena with the chunks of {@link #DEFAULT_CHUNK_SIZE} bytes. */
+  public SliceArena() {
+    this(DEFAULT_CHUNK_SIZE);
+  }
+
+  /**
+   * Constructs the arena with the chunks of the given size.
+   *
+   * @param chunkSize size of each of the chunks in bytes
+   */
+  public SliceArena(int chunkSize) {
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+    }
+
+    this.chunkSize = chunkSize;
+    this.chunks = new ArrayList<>();
+    this.chunkIndex = -1;
+    this.position = chunkSize;
+  }
+
+  /**
+   * Allocates a slice of the given length.
+   *
+   * @param length length of the slice
+   * @return slice whose contents are undefined
+   */
+  public Slice allocate(int length) {
+    return allocate(length, new Slice(null, 0, 0));
+  }
+
+  /**
+   * Repositions the given slice over a freshly allocated region of the given length. This allows
+   * the caller to reuse the slice objects along with the memory.
+   *
+   * @param length length of the region
+   * @param slice slice to be repositioned
+   * @return the slice passed as the argument
+   * @throws IllegalArgumentException if the length is negative
+   */
+  public Slice allocate(int length, Slice slice) {
+    if (length < 0) {
+      throw new IllegalArgumentException("Negative length " + length + '.');
+    }
+
+    if (length == 0) {
+      /* there may be no current chunk to point into */
+      slice.buffer = EMPTY;
+      slice.offset = 0;
+    } else if (length > chunkSize >>> 2) {
+      slice.buffer = new byte[length];
+      slice.offset = 0;
+    } else {
+      if (chunkSize - position < length) {
+        nextChunk();
+      }
+
+      slice.buffer = chunk;
+      slice.offset = position;
+      position += length;
+    }
+
+    slice.length = length;
+    return slice;
+  }
+
+  /**
+   * Allocates a slice and copies the given bytes into it.
+   *
+   * @param bytes array containing the bytes
+   * @param offset start of the bytes in the array
+   * @param length count of the bytes
+   * @return slice containing a copy of the bytes
+   */
+  public Slice copyOf(byte[] bytes, int offset, int length) {
+    final Slice slice = allocate(length);
+    System.arraycopy(bytes, offset, slice.buffer, slice.offset, length);
+    return slice;
+  }
+
+  /**
+   * Allocates a slice and copies the contents of the given slice into it.
+   *
+   * @param slice slice whose contents are copied
+   * @return slice containing a copy of the contents
+   */
+  public Slice copyOf(Slice slice) {
+    return copyOf(slice.buffer, slice.offset, slice.length);
+  }
+
+  private void nextChunk() {
+    if (++chunkIndex == chunks.size()) {
+      chunks.add(new byte[chunkSize]);
+    }
+
+    chunk = chunks.get(chunkIndex);
+    position = 0;
+  }
+
+  /**
+   * Releases all the slices allocated so far in bulk. The chunks are retained and reused for the
+   * subsequent allocations.
+   */
+  public void release() {
+    chunkIndex = -1;
+    chunk = null;
+    position = chunkSize;
+  }
+
+  /**
+   * Returns count of the chunks held by the arena irrespective of whether they are in use.
+   *
+   * @return count of the chunks
+   */
+  public int getChunkCount() {
+    return chunks.size();
+  }
+
+  /** Releases all the slices and drops the chunks so they can be garbage collected. */
+  @Override
+  public void close() {
+    release();
+    chunks.clear();
+  }
+}
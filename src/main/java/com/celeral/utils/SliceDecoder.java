@@ -0,0 +1,151 @@
+/*
+ * Copyright © 2021 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.utils;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reusable decoder of the text stored in slices. It decodes the bytes directly into the caller's
+ * {@link StringBuilder} or into its own {@link CharBuffer}, so text fields can be parsed out of the
+ * slices without creating temporary strings. The malformed input and the unmappable characters are
+ * replaced the same way the {@link String} constructors do.
+ *
+ * <p>The leading ASCII characters are copied over without running the charset decoder if the
+ * charset is ISO-8859-1, US-ASCII or UTF-8; for ISO-8859-1 all the characters are.
+ *
+ * <p>This class is not thread safe; each thread should use its own decoder.
+ *
+ * @since 2.2.1
+ */
+public class SliceDecoder {
+  private final CharsetDecoder decoder;
+  private final boolean latin1;
+  private final boolean asciiCompatible;
+  private CharBuffer chars;
+
+  /**
+   * Constructs the decoder for the given charset.
+   *
+   * @param charset charset the bytes are encoded in
+   */
+  public SliceDecoder(Charset charset) {
+    this.decoder =
+        charset
+            .newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    this.latin1 = StandardCharsets.ISO_8859_1.equals(charset);
+    this.asciiCompatible =
+        latin1
+            || StandardCharsets.UTF_8.equals(charset)
+            || StandardCharsets.US_ASCII.equals(charset);
+    this.chars = CharBuffer.allocate(64);
+  }
+
+  /**
+   * Decodes the bytes and appends the resulting characters to the builder.
+   *
+   * @param bytes bytes to be decoded
+   * @param builder builder to append the characters to
+   * @return the builder passed as the argument
+   */
+  public StringBuilder decode(ByteSequence bytes, StringBuilder builder) {
+    final int length = bytes.length();
+    int ascii = 0;
+    if (asciiCompatible) {
+      if (bytes instanceof Slice) {
+        final Slice slice = (Slice) bytes;
+        ascii = latin1 ? length : ByteArrays.nonAscii(slice.buffer, slice.offset, length);
+        if (ascii < 0) {
+          ascii = length;
+        }
+
+        builder.ensureCapacity(builder.length() + length);
+        final byte[] buffer = slice.buffer;
+        for (int i = slice.offset, end = i + ascii; i < end; i++) {
+          builder.append((char) (buffer[i] & 0xff));
+        }
+      } else {
+        while (ascii < length) {
+          final byte b = bytes.byteAt(ascii);
+          if (b < 0 && !latin1) {
+            break;
+          }
+
+          builder.append((char) (b & 0xff));
+          ascii++;
+        }
+      }
+
+      if (ascii == length) {
+        return builder;
+      }
+    }
+
+    final ByteBuffer in = bytes.toByteBuffer();
+    ((Buffer) in).position(ascii);
+    decode(in);
+    return builder.append(chars);
+  }
+
+  /**
+   * Decodes the bytes into the character buffer owned by this decoder. The returned buffer is ready
+   * to be read and stays valid only until this decoder is used next.
+   *
+   * @param bytes bytes to be decoded
+   * @return character buffer containing the decoded characters
+   */
+  public CharBuffer decode(ByteSequence bytes) {
+    decode(bytes.toByteBuffer());
+    return chars;
+  }
+
+  private void decode(ByteBuffer in) {
+    final int needed = (int) (in.remaining() * (double) decoder.maxCharsPerByte());
+    if (chars.capacity() < needed) {
+      chars = CharBuffer.allocate(needed);
+    }
+
+    ((Buffer) chars).clear();
+    decoder.reset();
+    CoderResult result = decoder.decode(in, chars, true);
+    if (result.isUnderflow()) {
+      result = decoder.flush(chars);
+    }
+    if (!result.isUnderflow()) {
+      /* cannot happen with the replacement actions and a buffer sized for the worst case */
+      throw new IllegalStateException("Unexpected result while decoding: " + result);
+    }
+
+    ((Buffer) chars).flip();
+  }
+
+  /**
+   * Returns the charset this decoder decodes the bytes from.
+   *
+   * @return the charset
+   */
+  public Charset charset() {
+    return decoder.charset();
+  }
+}
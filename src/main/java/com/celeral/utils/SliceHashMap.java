@@ -0,0 +1,337 @@
+/*
+ * Copyright © 2021 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.utils;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+import org.getopt.util.hash.MurmurHash;
+
+/**
+ * Open addressing hash map specialized for byte keys. Unlike {@code HashMap<Slice, V>}, it does not
+ * keep a {@link Slice} and a map node per entry; instead the bytes of all the keys are packed in a
+ * single arena array and each entry is described by its offset, length and hash in parallel {@code
+ * int} arrays. The keys can be looked up by {@code (byte[], offset, length)} without allocating a
+ * probe object.
+ *
+ * <p>The collisions are resolved using linear probing and removals shift the following entries back
+ * so no tombstones are left behind. The bytes of the removed keys are reclaimed when the arena is
+ * compacted, which happens whenever the table is resized or the arena would otherwise need to grow
+ * while half of it is garbage.
+ *
+ * <p>The keys are copied into the map, so the arrays passed in may be reused once the call returns.
+ * This class is not thread safe.
+ *
+ * @param <V> type of the value
+ * @since 2.2.1
+ */
+public class SliceHashMap<V> {
+  private static final int EMPTY = -1;
+  private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+  private byte[] arena;
+  private int arenaSize;
+  private int garbage;
+
+  private int[] offsets;
+  private int[] lengths;
+  private int[] hashes;
+  private Object[] values;
+
+  private int mask;
+  private int size;
+  private int threshold;
+
+  /** Constructs the map with the default initial capacity. */
+  public SliceHashMap() {
+    this(16, 256);
+  }
+
+  /**
+   * Constructs the map with the given initial capacities.
+   *
+   * @param capacity count of the entries the map can hold before it needs to resize
+   * @param arenaCapacity count of the key bytes the map can hold before the arena needs to grow
+   */
+  public SliceHashMap(int capacity, int arenaCapacity) {
+    arena = new byte[arenaCapacity];
+    allocate(tableSizeFor(capacity));
+  }
+
+  private static int tableSizeFor(int capacity) {
+    /* keep the load factor at 0.75 */
+    int slots = Math.max(2, capacity + capacity / 3 + 1);
+    return slots >= MAXIMUM_CAPACITY ? MAXIMUM_CAPACITY : Integer.highestOneBit(slots - 1) << 1;
+  }
+
+  private void allocate(int slots) {
+    offsets = new int[slots];
+    Arrays.fill(offsets, EMPTY);
+    lengths = new int[slots];
+    hashes = new int[slots];
+    values = new Object[slots];
+    mask = slots - 1;
+    threshold = slots - (slots >>> 2);
+  }
+
+  private static int hash(byte[] key, int offset, int length) {
+    return ByteSequence.hashCode(
+        MurmurHash.hash(key, ByteSequence.HASH_SEED, offset, length), length);
+  }
+
+  private int find(byte[] key, int offset, int length, int hash) {
+    for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+      final int entryOffset = offsets[slot];
+      if (entryOffset == EMPTY) {
+        return ~slot;
+      }
+
+      if (hashes[slot] == hash
+          && ByteArrays.equals(arena, entryOffset, lengths[slot], key, offset, length)) {
+        return slot;
+      }
+    }
+  }
+
+  /**
+   * Returns the value mapped to the key.
+   *
+   * @param key array containing the key
+   * @param offset start of the key in the array
+   * @param length length of the key
+   * @return the value mapped to the key or null if there is no mapping
+   */
+  @SuppressWarnings("unchecked")
+  public V get(byte[] key, int offset, int length) {
+    final int slot = find(key, offset, length, hash(key, offset, length));
+    return slot < 0 ? null : (V) values[slot];
+  }
+
+  /**
+   * Returns the value mapped to the key.
+   *
+   * @param key the key
+   * @return the value mapped to the key or null if there is no mapping
+   */
+  public V get(Slice key) {
+    return get(key.buffer, key.offset, key.length);
+  }
+
+  /**
+   * Tests if the key is mapped to a value.
+   *
+   * @param key array containing the key
+   * @param offset start of the key in the array
+   * @param length length of the key
+   * @return true if the key is present in the map, false otherwise
+   */
+  public boolean containsKey(byte[] key, int offset, int length) {
+    return find(key, offset, length, hash(key, offset, length)) >= 0;
+  }
+
+  /**
+   * Tests if the key is mapped to a value.
+   *
+   * @param key the key
+   * @return true if the key is present in the map, false otherwise
+   */
+  public boolean containsKey(Slice key) {
+    return containsKey(key.buffer, key.offset, key.length);
+  }
+
+  /**
+   * Maps the key to the value. The bytes of the key are copied into the map.
+   *
+   * @param key array containing the key
+   * @param offset start of the key in the array
+   * @param length length of the key
+   * @param value value to be mapped to the key
+   * @return the value previously mapped to the key or null if there was no mapping
+   */
+  @SuppressWarnings("unchecked")
+  public V put(byte[] key, int offset, int length, V value) {
+    final int hash = hash(key, offset, length);
+    int slot = find(key, offset, length, hash);
+    if (slot >= 0) {
+      final V previous = (V) values[slot];
+      values[slot] = value;
+      return previous;
+    }
+
+    if (size >= threshold && offsets.length < MAXIMUM_CAPACITY) {
+      rehash(offsets.length << 1, 0);
+      slot = find(key, offset, length, hash);
+    }
+
+    if (arena.length - arenaSize < length) {
+      if (garbage >= arenaSize >>> 1) {
+        rehash(offsets.length, length);
+        slot = find(key, offset, length, hash);
+      }
+      if (arena.length - arenaSize < length) {
+        arena = Arrays.copyOf(arena, arenaCapacityFor(arenaSize + length));
+      }
+    }
+
+    slot = ~slot;
+    System.arraycopy(key, offset, arena, arenaSize, length);
+    offsets[slot] = arenaSize;
+    lengths[slot] = length;
+    hashes[slot] = hash;
+    values[slot] = value;
+    arenaSize += length;
+    size++;
+    return null;
+  }
+
+  /**
+   * Maps the key to the value. The bytes of the key are copied into the map.
+   *
+   * @param key the key
+   * @param value value to be mapped to the key
+   * @return the value previously mapped to the key or null if there was no mapping
+   */
+  public V put(Slice key, V value) {
+    return put(key.buffer, key.offset, key.length, value);
+  }
+
+  /**
+   * Removes the mapping for the key.
+   *
+   * @param key array containing the key
+   * @param offset start of the key in the array
+   * @param length length of the key
+   * @return the value which was mapped to the key or null if there was no mapping
+   */
+  @SuppressWarnings("unchecked")
+  public V remove(byte[] key, int offset, int length) {
+    int slot = find(key, offset, length, hash(key, offset, length));
+    if (slot < 0) {
+      return null;
+    }
+
+    final V previous = (V) values[slot];
+    garbage += lengths[slot];
+    size--;
+
+    /* shift back the entries which would not be reachable after the slot becomes empty */
+    for (int next = (slot + 1) & mask; offsets[next] != EMPTY; next = (next + 1) & mask) {
+      final int ideal = hashes[next] & mask;
+      if (slot <= next ? slot < ideal && ideal <= next : slot < ideal || ideal <= next) {
+        continue;
+      }
+
+      offsets[slot] = offsets[next];
+      lengths[slot] = lengths[next];
+      hashes[slot] = hashes[next];
+      values[slot] = values[next];
+      slot = next;
+    }
+
+    offsets[slot] = EMPTY;
+    values[slot] = null;
+    return previous;
+  }
+
+  /**
+   * Removes the mapping for the key.
+   *
+   * @param key the key
+   * @return the value which was mapped to the key or null if there was no mapping
+   */
+  public V remove(Slice key) {
+    return remove(key.buffer, key.offset, key.length);
+  }
+
+  /**
+   * Invokes the action for each of the mappings in the map. The key passed to the action is a new
+   * slice over the arena of the map; it must not be modified and is valid only until the map is
+   * modified next.
+   *
+   * @param action action to be invoked for each of the mappings
+   */
+  @SuppressWarnings("unchecked")
+  public void forEach(BiConsumer<? super Slice, ? super V> action) {
+    for (int slot = 0; slot < offsets.length; slot++) {
+      if (offsets[slot] != EMPTY) {
+        action.accept(new Slice(arena, offsets[slot], lengths[slot]), (V) values[slot]);
+      }
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /** Removes all the mappings from the map retaining the allocated capacity. */
+  public void clear() {
+    Arrays.fill(offsets, EMPTY);
+    Arrays.fill(values, null);
+    arenaSize = 0;
+    garbage = 0;
+    size = 0;
+  }
+
+  private static int arenaCapacityFor(int needed) {
+    if (needed < 0) {
+      throw new IllegalStateException("Keys do not fit in a single arena of 2GB.");
+    }
+
+    final int doubled = Math.max(needed, 16) << 1;
+    return doubled < 0 ? Integer.MAX_VALUE - 8 : doubled;
+  }
+
+  /**
+   * Rebuilds the table with the given count of slots, compacting the arena in the process.
+   *
+   * @param slots count of slots in the new table
+   * @param extra count of bytes the compacted arena should additionally accommodate
+   */
+  private void rehash(int slots, int extra) {
+    final byte[] oldArena = arena;
+    final int[] oldOffsets = offsets;
+    final int[] oldLengths = lengths;
+    final int[] oldHashes = hashes;
+    final Object[] oldValues = values;
+
+    final int live = arenaSize - garbage;
+    arena = new byte[Math.max(oldArena.length, arenaCapacityFor(live + extra))];
+    arenaSize = 0;
+    garbage = 0;
+    allocate(slots);
+
+    for (int i = 0; i < oldOffsets.length; i++) {
+      if (oldOffsets[i] != EMPTY) {
+        int slot = oldHashes[i] & mask;
+        while (offsets[slot] != EMPTY) {
+          slot = (slot + 1) & mask;
+        }
+
+        final int length = oldLengths[i];
+        System.arraycopy(oldArena, oldOffsets[i], arena, arenaSize, length);
+        offsets[slot] = arenaSize;
+        lengths[slot] = length;
+        hashes[slot] = oldHashes[i];
+        values[slot] = oldValues[i];
+        arenaSize += length;
+      }
+    }
+  }
+}
@@ -0,0 +1,291 @@
+/*
+ * Copyright © 2021 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.utils;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Cursor reading the values sequentially from a slice, the counterpart of {@link ByteArrayWriter}.
+ * It keeps the position and the limit itself, so the decoders need not pass the offsets and the
+ * {@link VarInt.MutableInt} around, and it can be repositioned over the next message with {@link
+ * #reset(Slice)} without allocating.
+ *
+ * <p>Each read checks the limit once for the whole value rather than for each byte. A read which
+ * would cross the limit throws {@link BufferUnderflowException} and leaves the position unchanged.
+ * The decoders expecting a fixed layout can check the length of the message upfront with {@link
+ * #require(int)}. The fixed width integers are read in the little endian byte order.
+ *
+ * <p>This class is not thread safe.
+ *
+ * @since 2.2.1
+ */
+public class SliceReader {
+  private byte[] buffer;
+  private int offset;
+  private int position;
+  private int limit;
+  private ByteBuffer words;
+
+  /** Constructs the reader to be positioned with {@link #reset(Slice)} before use. */
+  public SliceReader() {
+    this(new byte[0], 0, 0);
+  }
+
+  /**
+   * Constructs the reader positioned at the beginning of the slice.
+   *
+   * @param slice slice to read from
+   */
+  public SliceReader(Slice slice) {
+    this(slice.buffer, slice.offset, slice.length);
+  }
+
+  /**
+   * Constructs the reader positioned at the beginning of the range of the array.
+   *
+   * @param buffer array to read from
+   * @param offset start of the range
+   * @param length length of the range
+   */
+  public SliceReader(byte[] buffer, int offset, int length) {
+    reset(buffer, offset, length);
+  }
+
+  /**
+   * Repositions the reader at the beginning of the slice.
+   *
+   * @param slice slice to read from
+   * @return this reader
+   */
+  public SliceReader reset(Slice slice) {
+    return reset(slice.buffer, slice.offset, slice.length);
+  }
+
+  /**
+   * Repositions the reader at the beginning of the range of the array.
+   *
+   * @param buffer array to read from
+   * @param offset start of the range
+   * @param length length of the range
+   * @return this reader
+   */
+  public SliceReader reset(byte[] buffer, int offset, int length) {
+    if (offset < 0 || length < 0 || offset > buffer.length - length) {
+      throw new IndexOutOfBoundsException(
+          "offset " + offset + ", length " + length + ", array length " + buffer.length);
+    }
+
+    if (this.buffer != buffer) {
+      this.buffer = buffer;
+      this.words = ByteBuffer.wrap(buffer).order(ByteOrder.LITTLE_ENDIAN);
+    }
+    this.offset = offset;
+    this.position = offset;
+    this.limit = offset + length;
+    return this;
+  }
+
+  /**
+   * Checks that the given count of bytes remains to be read.
+   *
+   * @param count count of the bytes
+   * @return this reader
+   * @throws BufferUnderflowException if fewer bytes remain
+   * @throws IllegalArgumentException if the count is negative
+   */
+  public SliceReader require(int count) {
+    if (count < 0) {
+      throw new IllegalArgumentException("Negative count " + count + '.');
+    }
+    if (count > limit - position) {
+      throw new BufferUnderflowException();
+    }
+
+    return this;
+  }
+
+  public int remaining() {
+    return limit - position;
+  }
+
+  public boolean hasRemaining() {
+    return position < limit;
+  }
+
+  /**
+   * Returns the position of the next byte to be read relative to the beginning of the slice.
+   *
+   * @return the position
+   */
+  public int position() {
+    return position - offset;
+  }
+
+  /**
+   * Skips the given count of bytes.
+   *
+   * @param count count of the bytes
+   * @return this reader
+   */
+  public SliceReader skip(int count) {
+    require(count);
+    position += count;
+    return this;
+  }
+
+  public byte readByte() {
+    require(1);
+    return buffer[position++];
+  }
+
+  /**
+   * Reads the integer in 4 bytes in the little endian byte order.
+   *
+   * @return the integer
+   */
+  public int readInt() {
+    require(4);
+    final int value = words.getInt(position);
+    position += 4;
+    return value;
+  }
+
+  /**
+   * Reads the long in 8 bytes in the little endian byte order.
+   *
+   * @return the long
+   */
+  public long readLong() {
+    require(8);
+    final long value = words.getLong(position);
+    position += 8;
+    return value;
+  }
+
+  /**
+   * Reads the integer encoded as {@link VarInt}.
+   *
+   * @return the integer
+   * @throws BufferUnderflowException if the slice ends before the value is completely read
+   * @throws IllegalArgumentException if the value spans more than 5 bytes
+   */
+  public int readVarInt() {
+    final long packed = VarInt.readPacked(buffer, position, limit);
+    final int next = VarInt.offset(packed);
+    if (next <= 0) {
+      throw next == -5
+          ? new IllegalArgumentException("Varint is longer than 5 bytes.")
+          : new BufferUnderflowException();
+    }
+
+    position = next;
+    return VarInt.value(packed);
+  }
+
+  /**
+   * Reads the long encoded as {@link VarInt}.
+   *
+   * @return the long
+   * @throws BufferUnderflowException if the slice ends before the value is completely read
+   * @throws IllegalArgumentException if the value spans more than 10 bytes
+   */
+  public long readVarLong() {
+    long value = 0;
+    for (int shift = 0, i = position; shift < 70; shift += 7) {
+      if (i >= limit) {
+        throw new BufferUnderflowException();
+      }
+
+      final byte tmp = buffer[i++];
+      value |= (long) (tmp & 0x7f) << shift;
+      if (tmp >= 0) {
+        position = i;
+        return value;
+      }
+    }
+
+    throw new IllegalArgumentException("Varint is longer than 10 bytes.");
+  }
+
+  /**
+   * Reads the signed integer encoded as zig-zag {@link VarInt}.
+   *
+   * @return the integer
+   * @see #readVarInt()
+   */
+  public int readSignedVarInt() {
+    return VarInt.decodeZigZag(readVarInt());
+  }
+
+  /**
+   * Reads the signed long encoded as zig-zag {@link VarInt}.
+   *
+   * @return the long
+   * @see #readVarLong()
+   */
+  public long readSignedVarLong() {
+    return VarInt.decodeZigZag(readVarLong());
+  }
+
+  /**
+   * Reads the given count of bytes as a view sharing the array with the slice being read.
+   *
+   * @param length count of the bytes
+   * @return slice over the bytes
+   */
+  public Slice readSlice(int length) {
+    require(length);
+    final Slice slice = new Slice(buffer, position, length);
+    position += length;
+    return slice;
+  }
+
+  /**
+   * Reads the bytes prefixed with their count as {@link VarInt}, as written by {@link
+   * ByteArrayWriter#writeSlice(Slice)}, as a view sharing the array with the slice being read.
+   *
+   * @return slice over the bytes
+   */
+  public Slice readSlice() {
+    final int start = position;
+    final int length = readVarInt();
+    if (length < 0 || length > limit - position) {
+      position = start;
+      throw new BufferUnderflowException();
+    }
+
+    final Slice slice = new Slice(buffer, position, length);
+    position += length;
+    return slice;
+  }
+
+  /**
+   * Reads the UTF-8 encoded string prefixed with the count of its bytes as {@link VarInt}.
+   *
+   * @return the string
+   */
+  public String readString() {
+    return readSlice().stringValue(StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public String toString() {
+    return "SliceReader{position=" + position() + ", remaining=" + remaining() + '}';
+  }
+}
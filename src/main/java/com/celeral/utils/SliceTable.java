@@ -0,0 +1,155 @@
+/*
+ * Copyright © 2021 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.utils;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interning table for slices. Given any slice, it returns the canonical slice with the same
+ * contents, so that many occurrences of the same bytes, e.g. tenant ids or metric names, share a
+ * single object and a single right-sized array instead of holding their own copies.
+ *
+ * <p>The canonical slices are weakly referenced by the table. Once they are not referenced anywhere
+ * else, they are garbage collected and their entries are removed from the table the next time the
+ * table is accessed. The table is safe to be used concurrently by multiple threads.
+ *
+ * @since 2.2.1
+ */
+public class SliceTable {
+  private final ReferenceQueue<Slice> queue;
+  private final ConcurrentHashMap<Entry, Entry> map;
+
+  /** Weak reference to a slice which is hashed and compared using the slice's contents. */
+  private static final class Entry extends WeakReference<Slice> {
+    final int hash;
+
+    Entry(Slice slice, ReferenceQueue<Slice> queue) {
+      super(slice, queue);
+      hash = slice.hashCode();
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj == this) {
+        return true;
+      }
+
+      if (obj instanceof Entry) {
+        final Slice slice = get();
+        return slice != null && slice.equals(((Entry) obj).get());
+      }
+
+      return false;
+    }
+  }
+
+  /** Constructs the table with the default initial capacity. */
+  public SliceTable() {
+    this(16);
+  }
+
+  /**
+   * Constructs the table with the given initial capacity.
+   *
+   * @param capacity count of distinct slices the table can hold before it needs to resize
+   */
+  public SliceTable(int capacity) {
+    this.queue = new ReferenceQueue<>();
+    this.map = new ConcurrentHashMap<>(capacity);
+  }
+
+  private void reap() {
+    Reference<? extends Slice> poll;
+    while ((poll = queue.poll()) != null) {
+      map.remove(poll, poll);
+    }
+  }
+
+  /**
+   * Returns the canonical slice with the same contents as the given slice. If there is none, a new
+   * canonical slice is created with a copy of the contents in a right-sized array, so the canonical
+   * slice does not pin a potentially large buffer the given slice is a window into.
+   *
+   * @param slice slice whose canonical representation is needed
+   * @return canonical slice equal to the given slice
+   */
+  public ImmutableSlice intern(Slice slice) {
+    reap();
+
+    final Entry found = map.get(new Entry(slice, null));
+    if (found != null) {
+      final Slice canonical = found.get();
+      if (canonical != null) {
+        return (ImmutableSlice) canonical;
+      }
+    }
+
+    final ImmutableSlice canonical = new ImmutableSlice(slice.toByteArray());
+    final Entry entry = new Entry(canonical, queue);
+    while (true) {
+      final Entry existing = map.putIfAbsent(entry, entry);
+      if (existing == null) {
+        return canonical;
+      }
+
+      final Slice other = existing.get();
+      if (other != null) {
+        return (ImmutableSlice) other;
+      }
+
+      /* lost the race with the garbage collector; drop the cleared entry and try again */
+      map.remove(existing, existing);
+    }
+  }
+
+  /**
+   * Returns the canonical slice with the given contents.
+   *
+   * @param bytes array containing the contents
+   * @param offset start of the contents in the array
+   * @param length length of the contents
+   * @return canonical slice with the given contents
+   * @see #intern(Slice)
+   */
+  public ImmutableSlice intern(byte[] bytes, int offset, int length) {
+    return intern(new Slice(bytes, offset, length));
+  }
+
+  /**
+   * Returns count of the canonical slices in the table. The slices which are garbage collected but
+   * not yet removed from the table may be included in the count.
+   *
+   * @return count of the canonical slices
+   */
+  public int size() {
+    reap();
+    return map.size();
+  }
+
+  /** Removes all the canonical slices from the table. */
+  public void clear() {
+    map.clear();
+    reap();
+  }
+}
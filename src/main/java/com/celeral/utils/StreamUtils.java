@@ -17,10 +17,33 @@ package com.celeral.utils;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
-/** Utility functions to operate on the input/output streams.F* */
+/** Utility functions to operate on the input/output streams and the file channels. */
 public class StreamUtils {
+  /** Some VMs reserve the header words in the arrays, so the largest array is a bit smaller. */
+  private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+  private static final int MIN_CHUNK_SIZE = 512;
+
+  /**
+   * G1 allocates the arrays of half of its region size or larger directly in the old generation;
+   * the smallest regions are 1MB, so the chunks are kept well below that.
+   */
+  private static final int MAX_CHUNK_SIZE = 256 * 1024;
+
+  private static final int COPY_BUFFER_SIZE = 8 * 1024;
+
   /**
    * Reads all the bytes from the input stream until the stream's end is reached. This function does
    * not close the stream as it does not open it as well.
@@ -38,6 +61,7 @@ public class StreamUtils {
       available = 512;
     }
 
+    final BufferPool pool = BufferPool.getDefault();
     byte[] buffer = new byte[available];
     int offset = 0;
 
@@ -47,14 +71,17 @@ public class StreamUtils {
         totalOffset += buffer.length;
         read = stream.read();
         if (read == -1) {
+          /* the buffer ended exactly full; all of it belongs to the result */
+          buffers.add(buffer);
+          buffer = null;
           offset = 0;
           break;
         } else {
           buffers.add(buffer);
-          int newLength = 1 << (31 - Integer.numberOfLeadingZeros(totalOffset));
-          buffer = new byte[newLength];
+          /* the pool may round the small sizes up */
+          buffer = pool.acquire(1 << (31 - Integer.numberOfLeadingZeros(totalOffset)));
           buffer[0] = (byte) read;
-          available = newLength - 1;
+          available = buffer.length - 1;
           offset = 1;
         }
       } else {
@@ -65,26 +92,120 @@ public class StreamUtils {
 
     totalOffset += offset;
 
-    byte[] newBuffer;
-    if (buffer.length == totalOffset) {
-      if (buffers.isEmpty()) {
-        return buffer;
+    if (buffer == null && buffers.size() == 1) {
+      /* the first buffer, which is not pooled, turned out to be of the exact size */
+      return buffers.get(0);
+    }
+
+    final byte[] newBuffer = new byte[totalOffset];
+    int position = 0;
+    for (byte[] bytes : buffers) {
+      System.arraycopy(bytes, 0, newBuffer, position, bytes.length);
+      position += bytes.length;
+      pool.release(bytes);
+    }
+
+    if (buffer != null) {
+      System.arraycopy(buffer, 0, newBuffer, position, offset);
+      pool.release(buffer);
+    }
+
+    return newBuffer;
+  }
+
+  /**
+   * Reads all the bytes from the input stream until the stream's end is reached, failing as soon as
+   * the stream turns out to contain more than the given count of bytes. At most one byte more than
+   * the limit is read from the stream. This function does not close the stream as it does not open
+   * it as well.
+   *
+   * @param stream input stream from where bytes are needed to be read
+   * @param maxBytes maximum count of bytes the stream may contain
+   * @return array of bytes read
+   * @throws IOException if the stream contains more bytes than allowed, or propagates the
+   *     exceptions encountered while reading the stream
+   * @since 2.2.1
+   */
+  public static byte[] readFully(InputStream stream, int maxBytes) throws IOException {
+    final List<Slice> chunks = readChunks(stream, Math.min(maxBytes, MAX_ARRAY_SIZE));
+    if (chunks.size() == 1) {
+      final Slice chunk = chunks.get(0);
+      if (chunk.length == chunk.buffer.length) {
+        return chunk.buffer;
       }
+    }
+
+    int length = 0;
+    for (Slice chunk : chunks) {
+      length += chunk.length;
+    }
 
-      newBuffer = buffer;
-    } else {
-      newBuffer = new byte[totalOffset];
+    final byte[] bytes = new byte[length];
+    int offset = 0;
+    for (Slice chunk : chunks) {
+      System.arraycopy(chunk.buffer, chunk.offset, bytes, offset, chunk.length);
+      offset += chunk.length;
     }
 
-    System.arraycopy(buffer, 0, newBuffer, totalOffset - offset, offset);
+    return bytes;
+  }
 
-    offset = 0;
-    for (byte[] bytes : buffers) {
-      System.arraycopy(bytes, 0, newBuffer, offset, bytes.length);
-      offset += bytes.length;
+  /**
+   * Reads all the bytes from the input stream until the stream's end is reached into a list of
+   * chunks. Unlike {@link #readFully(InputStream)}, the chunks are not concatenated, so the stream
+   * is never held in the memory twice and no large arrays are allocated: the chunks grow
+   * geometrically but do not exceed 256KB. This function does not close the stream as it does not
+   * open it as well.
+   *
+   * @param stream input stream from where bytes are needed to be read
+   * @return slices over the bytes read in the order they were read; empty if the stream is empty
+   * @throws IOException propagates the exceptions encountered while reading the stream
+   * @since 2.2.1
+   */
+  public static List<Slice> readChunks(InputStream stream) throws IOException {
+    return readChunks(stream, Long.MAX_VALUE);
+  }
+
+  /**
+   * Reads all the bytes from the input stream until the stream's end is reached into a list of
+   * chunks, failing as soon as the stream turns out to contain more than the given count of bytes.
+   *
+   * @param stream input stream from where bytes are needed to be read
+   * @param maxBytes maximum count of bytes the stream may contain
+   * @return slices over the bytes read in the order they were read; empty if the stream is empty
+   * @throws IOException if the stream contains more bytes than allowed, or propagates the
+   *     exceptions encountered while reading the stream
+   * @see #readChunks(InputStream)
+   * @since 2.2.1
+   */
+  public static List<Slice> readChunks(InputStream stream, long maxBytes) throws IOException {
+    if (maxBytes < 0) {
+      throw new IllegalArgumentException("Negative limit " + maxBytes + '.');
     }
 
-    return newBuffer;
+    final ArrayList<Slice> chunks = new ArrayList<>();
+
+    /* one byte more than is available lets a stream of known length end within the first chunk */
+    long size = Math.max(MIN_CHUNK_SIZE, Math.min(stream.available() + 1L, MAX_CHUNK_SIZE));
+    long total = 0;
+    while (true) {
+      /* never allocate more than is needed to find out that the limit is exceeded */
+      final long allowed = maxBytes - total;
+      final byte[] chunk = new byte[(int) (size <= allowed ? size : allowed + 1)];
+      final int read = readFully(stream, chunk, 0, chunk.length);
+      total += read;
+      if (total > maxBytes) {
+        throw new IOException("Stream contains more than " + maxBytes + " bytes.");
+      }
+      if (read > 0) {
+        chunks.add(new Slice(chunk, 0, read));
+      }
+      if (read < chunk.length) {
+        return chunks;
+      }
+
+      size = Math.min(size << 1, MAX_CHUNK_SIZE);
+    }
   }
 
   /**
@@ -122,7 +243,7 @@ public class StreamUtils {
     int totalRead = 0;
 
     while (totalRead < length) {
-      int read = stream.read(bytes, offset, length - totalRead);
+      int read = stream.read(bytes, offset + totalRead, length - totalRead);
       if (read == -1) {
         break;
       }
@@ -132,4 +253,155 @@ public class StreamUtils {
 
     return totalRead;
   }
+
+  /**
+   * Reads all the bytes of the file. Unlike {@link #readFully(InputStream)}, the size of the file
+   * is known upfront, so the bytes are read straight into an array of the exact size.
+   *
+   * @param path path of the file
+   * @return array of bytes read
+   * @throws IOException if the file cannot be read or is larger than the largest array
+   * @since 2.2.1
+   */
+  public static byte[] readFully(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      return readFully(channel);
+    }
+  }
+
+  /**
+   * Reads all the bytes of the file from the current position of the channel to the size the file
+   * has when this function is called. The bytes are read straight into an array of the exact size.
+   * This function does not close the channel as it does not open it as well.
+   *
+   * @param channel channel to read the bytes from
+   * @return array of bytes read
+   * @throws IOException if the channel cannot be read or the bytes do not fit into an array
+   * @since 2.2.1
+   */
+  public static byte[] readFully(FileChannel channel) throws IOException {
+    /* the position may be past the end of the file, where nothing remains to be read */
+    final int size = checkArraySize(Math.max(0, channel.size() - channel.position()));
+    final byte[] bytes = new byte[size];
+    final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer) == -1) {
+        /* the file was truncated while being read */
+        return Arrays.copyOf(bytes, buffer.position());
+      }
+    }
+
+    return bytes;
+  }
+
+  /**
+   * Maps the file into the memory read only and returns a slice over its bytes. No bytes are copied
+   * to the heap; the operating system pages them in as they are accessed, which makes it the
+   * cheapest way to access the large files. The mapping remains valid until the slice is garbage
+   * collected, even though the file is closed before this function returns.
+   *
+   * @param path path of the file
+   * @return slice over the mapped bytes
+   * @throws IOException if the file cannot be mapped or is larger than 2GB
+   * @since 2.2.1
+   */
+  public static DirectSlice map(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      final int size = checkArraySize(channel.size());
+      return new DirectSlice(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), 0, size);
+    }
+  }
+
+  /**
+   * Copies all the bytes from the input stream to the output stream until the input stream's end is
+   * reached. The buffer used for copying is borrowed from {@link BufferPool#getDefault()}. This
+   * function neither closes nor flushes the streams as it does not open them as well.
+   *
+   * @param in input stream to copy the bytes from
+   * @param out output stream to copy the bytes to
+   * @return count of bytes copied
+   * @throws IOException propagates the exceptions encountered while reading or writing the streams
+   * @since 2.2.1
+   */
+  public static long copy(InputStream in, OutputStream out) throws IOException {
+    final BufferPool pool = BufferPool.getDefault();
+    final byte[] buffer = pool.acquire(COPY_BUFFER_SIZE);
+    try {
+      long count = 0;
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        out.write(buffer, 0, read);
+        count += read;
+      }
+
+      return count;
+    } finally {
+      pool.release(buffer);
+    }
+  }
+
+  /**
+   * Transfers all the bytes from the source channel to the target channel until the source's end is
+   * reached. If the source is a {@link FileChannel}, the bytes are transferred with {@link
+   * FileChannel#transferTo(long, long, WritableByteChannel)}, which lets the operating system send
+   * a file to a socket without copying it through the memory of the process; the position of the
+   * source is advanced past the bytes transferred. Otherwise the bytes are copied through a buffer
+   * borrowed from {@link BufferPool#getDefault()}. The channels are expected to be in the blocking
+   * mode. This function does not close the channels as it does not open them as well.
+   *
+   * @param source channel to transfer the bytes from
+   * @param target channel to transfer the bytes to
+   * @return count of bytes transferred
+   * @throws IOException propagates the exceptions encountered while reading or writing the channels
+   * @since 2.2.1
+   */
+  public static long transfer(ReadableByteChannel source, WritableByteChannel target)
+      throws IOException {
+    if (source instanceof FileChannel) {
+      final FileChannel file = (FileChannel) source;
+      final long start = file.position();
+      long position = start;
+      long size;
+      while (position < (size = file.size())) {
+        final long transferred = file.transferTo(position, size - position, target);
+        if (transferred <= 0) {
+          /* the file was truncated concurrently */
+          break;
+        }
+        position += transferred;
+      }
+
+      file.position(position);
+      return position - start;
+    }
+
+    final BufferPool pool = BufferPool.getDefault();
+    final byte[] array = pool.acquire(COPY_BUFFER_SIZE);
+    try {
+      final ByteBuffer buffer = ByteBuffer.wrap(array);
+      long count = 0;
+      int read;
+      while ((read = source.read(buffer)) != -1) {
+        count += read;
+        /* cast to Buffer to remain binary compatible with Java 8 */
+        ((Buffer) buffer).flip();
+        while (buffer.hasRemaining()) {
+          target.write(buffer);
+        }
+        ((Buffer) buffer).clear();
+      }
+
+      return count;
+    } finally {
+      pool.release(array);
+    }
+  }
+
+  private static int checkArraySize(long size) throws IOException {
+    if (size > MAX_ARRAY_SIZE) {
+      throw new IOException("Size " + size + " exceeds the maximum of " + MAX_ARRAY_SIZE + '.');
+    }
+
+    return (int) size;
+  }
 }
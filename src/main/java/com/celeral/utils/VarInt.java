@@ -15,6 +15,16 @@
  */
 package com.celeral.utils;
 
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.Buffer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
 public class VarInt {
   /**
    * Writes the Variable Sized Integer of Length 32. Assumes that the buffer has 5 positions at
@@ -51,6 +61,48 @@ public class VarInt {
     return i;
   }
 
+  /**
+   * Writes the Variable Sized Integer of Length 32 to the stream.
+   *
+   * @param value value to be written
+   * @param out stream to write the value to
+   * @throws IOException propagates the exceptions encountered while writing to the stream
+   */
+  public static void write(int value, OutputStream out) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      out.write((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+
+    out.write(value);
+  }
+
+  /**
+   * Reads the Variable Sized Integer of Length 32 from the stream.
+   *
+   * @param in stream to read the value from
+   * @return value read
+   * @throws EOFException if the stream ends before the value is completely read
+   * @throws StreamCorruptedException if the value spans more than 5 bytes
+   * @throws IOException propagates the exceptions encountered while reading from the stream
+   */
+  public static int read(InputStream in) throws IOException {
+    int integer = 0;
+    for (int shift = 0; shift < 35; shift += 7) {
+      final int tmp = in.read();
+      if (tmp == -1) {
+        throw new EOFException("Stream ended while reading varint.");
+      }
+
+      integer |= (tmp & 0x7f) << shift;
+      if ((tmp & 0x80) == 0) {
+        return integer;
+      }
+    }
+
+    throw new StreamCorruptedException("Varint is longer than 5 bytes.");
+  }
+
   public static int getSize(int value) {
     int offset = 0;
     while (true) {
@@ -138,4 +190,593 @@ public class VarInt {
 
     return 0;
   }
+
+  /**
+   * Reads the Variable Sized Integer of Length 32 without the need for a {@link MutableInt}. The
+   * value and the position after it are packed into the returned long, to be extracted with {@link
+   * #value(long)} and {@link #offset(long)}, so the decoders need neither to allocate a holder for
+   * the offset nor to pass one around:
+   *
+   * <pre>{@code
+   * while (offset < limit) {
+   *   long packed = VarInt.readPacked(buffer, offset, limit);
+   *   offset = VarInt.offset(packed);
+   *   if (offset <= 0) {
+   *     // truncated or malformed
+   *   }
+   *   sum += VarInt.value(packed);
+   * }
+   * }</pre>
+   *
+   * If the value cannot be read, the offset is the error code described at {@link #read(byte[],
+   * int, int, MutableInt)} and the value is 0.
+   *
+   * @param readBuffer array containing the bytes to be parsed
+   * @param offset position of the first byte of the value
+   * @param limit position after the last byte which may be read
+   * @return value in the higher and the position after it in the lower 32 bits
+   * @since 2.2.1
+   */
+  public static long readPacked(byte[] readBuffer, int offset, int limit) {
+    if (offset < limit) {
+      byte tmp = readBuffer[offset++];
+      if (tmp >= 0) {
+        return (long) tmp << 32 | offset;
+      } else if (offset < limit) {
+        int integer = tmp & 0x7f;
+        tmp = readBuffer[offset++];
+        if (tmp >= 0) {
+          return (long) (integer | tmp << 7) << 32 | offset;
+        } else if (offset < limit) {
+          integer |= (tmp & 0x7f) << 7;
+          tmp = readBuffer[offset++];
+          if (tmp >= 0) {
+            return (long) (integer | tmp << 14) << 32 | offset;
+          } else if (offset < limit) {
+            integer |= (tmp & 0x7f) << 14;
+            tmp = readBuffer[offset++];
+            if (tmp >= 0) {
+              return (long) (integer | tmp << 21) << 32 | offset;
+            } else if (offset < limit) {
+              integer |= (tmp & 0x7f) << 21;
+              tmp = readBuffer[offset++];
+              if (tmp >= 0) {
+                return (long) (integer | tmp << 28) << 32 | offset;
+              } else {
+                return -5 & 0xffffffffL;
+              }
+            } else {
+              return -4 & 0xffffffffL;
+            }
+          } else {
+            return -3 & 0xffffffffL;
+          }
+        } else {
+          return -2 & 0xffffffffL;
+        }
+      } else {
+        return -1 & 0xffffffffL;
+      }
+    }
+
+    return 0;
+  }
+
+  /**
+   * Extracts the value from the result of {@link #readPacked(byte[], int, int)}.
+   *
+   * @param packed the result
+   * @return the value read
+   * @since 2.2.1
+   */
+  public static int value(long packed) {
+    return (int) (packed >>> 32);
+  }
+
+  /**
+   * Extracts the position after the value, or the error code, from the result of {@link
+   * #readPacked(byte[], int, int)}.
+   *
+   * @param packed the result
+   * @return the position after the value if positive, the error code otherwise
+   * @since 2.2.1
+   */
+  public static int offset(long packed) {
+    return (int) packed;
+  }
+
+  private static final long CONTINUATION_BITS = 0x8080808080808080L;
+
+  /**
+   * Decodes all the consecutive Variable Sized Integers of Length 32 in the range of the array into
+   * the destination array, starting at its beginning. The result is identical to reading the values
+   * one by one with {@link #read(byte[], int, int, MutableInt)}.
+   *
+   * <p>The bytes are processed 8 at a time as little endian words. The 8 values fitting in a byte
+   * each are copied at once; otherwise the length of the first value is found from the positions of
+   * the continuation bits in the word and its 7 bit groups are gathered without branching, so the
+   * cost does not depend on predicting the lengths of the values.
+   *
+   * @param src array containing the encoded values
+   * @param offset position of the first byte of the first value
+   * @param length count of the bytes of all the values
+   * @param dst array receiving the decoded values
+   * @return count of the values decoded
+   * @throws IllegalArgumentException if a value is longer than 5 bytes, the last value is
+   *     incomplete, or the values do not fit in the destination array
+   * @since 2.2.1
+   */
+  public static int decode(byte[] src, int offset, int length, int[] dst) {
+    final int limit = offset + length;
+    final ByteBuffer words = ByteBuffer.wrap(src).order(ByteOrder.LITTLE_ENDIAN);
+    final int capacity = dst.length;
+    int count = 0;
+
+    while (offset <= limit - 8 && count <= capacity - 8) {
+      final long word = words.getLong(offset);
+      if ((word & CONTINUATION_BITS) == 0) {
+        for (int i = 0; i < 8; i++) {
+          dst[count++] = src[offset++];
+        }
+        continue;
+      }
+
+      /* the lowest clear continuation bit marks the last byte of the first value */
+      final int size = (Long.numberOfTrailingZeros(~word & CONTINUATION_BITS) >>> 3) + 1;
+      if (size > 5) {
+        throw new IllegalArgumentException("Varint at " + offset + " is longer than 5 bytes.");
+      }
+
+      final long bytes = word & -1L >>> (64 - (size << 3));
+      dst[count++] =
+          (int)
+              (bytes & 0x7f
+                  | bytes >>> 1 & 0x3f80
+                  | bytes >>> 2 & 0x1fc000
+                  | bytes >>> 3 & 0xfe00000
+                  | bytes >>> 4 & 0xf0000000L);
+      offset += size;
+    }
+
+    while (offset < limit) {
+      if (count == capacity) {
+        throw new IllegalArgumentException(
+            "Values do not fit in the destination of length " + capacity + '.');
+      }
+
+      final long packed = readPacked(src, offset, limit);
+      if (offset(packed) <= 0) {
+        throw new IllegalArgumentException(
+            offset(packed) == -5
+                ? "Varint at " + offset + " is longer than 5 bytes."
+                : "Varint at " + offset + " is incomplete.");
+      }
+
+      dst[count++] = value(packed);
+      offset = offset(packed);
+    }
+
+    return count;
+  }
+
+  /**
+   * Encodes the values as consecutive Variable Sized Integers of Length 32, identical to writing
+   * them one by one with {@link #write(int, byte[], int)}. Assumes that the destination has 5
+   * positions per value at least starting with dstOffset.
+   *
+   * <p>The 8 values fitting in a byte each are copied at once. Otherwise each value is spread into
+   * its 7 bit groups with the continuation bits and stored with a single little endian write
+   * without branching on its length. The bytes of the last few values are written one at a time, so
+   * that no byte after the returned position is overwritten.
+   *
+   * @param src array containing the values
+   * @param offset index of the first value
+   * @param length count of the values
+   * @param dst array receiving the encoded values
+   * @param dstOffset position in the destination to write the first byte at
+   * @return position in the destination after the last value
+   * @since 2.2.1
+   */
+  public static int encode(int[] src, int offset, int length, byte[] dst, int dstOffset) {
+    final ByteBuffer words = ByteBuffer.wrap(dst).order(ByteOrder.LITTLE_ENDIAN);
+    final int wordLimit = dst.length - 8;
+    final int end = offset + length;
+    /* while 8 values are left, they cover all the bytes of the word written for the first one */
+    final int wordEnd = end - 7;
+    while (offset < wordEnd && dstOffset <= wordLimit) {
+      final int value = src[offset];
+      if (((value
+                  | src[offset + 1]
+                  | src[offset + 2]
+                  | src[offset + 3]
+                  | src[offset + 4]
+                  | src[offset + 5]
+                  | src[offset + 6]
+                  | src[offset + 7])
+              & ~0x7F)
+          == 0) {
+        for (int i = 0; i < 8; i++) {
+          dst[dstOffset++] = (byte) src[offset++];
+        }
+        continue;
+      }
+
+      final int size = (38 - Integer.numberOfLeadingZeros(value | 1)) / 7;
+      final long v = value & 0xffffffffL;
+      final long bytes =
+          v & 0x7f
+              | (v & 0x3f80) << 1
+              | (v & 0x1fc000) << 2
+              | (v & 0xfe00000) << 3
+              | (v & 0xf0000000L) << 4;
+      words.putLong(dstOffset, bytes | CONTINUATION_BITS & (1L << ((size - 1) << 3)) - 1);
+      dstOffset += size;
+      offset++;
+    }
+
+    for (; offset < end; offset++) {
+      dstOffset = write(src[offset], dst, dstOffset);
+    }
+
+    return dstOffset;
+  }
+
+  /**
+   * Writes the Variable Sized Integer of Length 64. Assumes that the buffer has 10 positions at
+   * least starting with offset.
+   *
+   * @param value value to be written
+   * @param buffer array to write the value to
+   * @param offset position in the array to write the first byte at
+   * @return position in the array after the value
+   * @since 2.2.1
+   */
+  public static int writeLong(long value, byte[] buffer, int offset) {
+    while ((value & ~0x7FL) != 0) {
+      buffer[offset++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+
+    buffer[offset++] = (byte) value;
+    return offset;
+  }
+
+  /**
+   * Reads the Variable Sized Integer of Length 64. The outcome is reported through newOffset the
+   * same way as by {@link #read(byte[], int, int, MutableInt)}: the position after the value if the
+   * value is read successfully, 0 if there is nothing to read, and -n if the value is still
+   * incomplete after the n bytes available before the limit or, for n equal to 10, the 10th byte is
+   * followed by more.
+   *
+   * @param readBuffer array containing the bytes to be parsed
+   * @param offset position of the first byte of the value
+   * @param limit position after the last byte which may be read
+   * @param newOffset receives the position after the value or the negative error code
+   * @return value read, or 0 if the value could not be read
+   * @since 2.2.1
+   */
+  public static long readLong(byte[] readBuffer, int offset, int limit, MutableInt newOffset) {
+    long value = 0;
+    for (int shift = 0, count = 1; shift < 70; shift += 7, count++) {
+      if (offset >= limit) {
+        newOffset.integer = 1 - count;
+        return 0;
+      }
+
+      final byte tmp = readBuffer[offset++];
+      value |= (long) (tmp & 0x7f) << shift;
+      if (tmp >= 0) {
+        newOffset.integer = offset;
+        return value;
+      }
+    }
+
+    newOffset.integer = -10;
+    return 0;
+  }
+
+  /**
+   * Computes the count of the bytes needed to write the value with {@link #writeLong(long, byte[],
+   * int)}.
+   *
+   * @param value the value
+   * @return count of the bytes, between 1 and 10
+   * @since 2.2.1
+   */
+  public static int getSize(long value) {
+    return value == 0 ? 1 : (64 - Long.numberOfLeadingZeros(value) + 6) / 7;
+  }
+
+  /**
+   * Maps the signed integer to an unsigned one so that the values of small magnitude, including the
+   * negative ones, have the short encodings: 0, -1, 1, -2, 2 ... are mapped to 0, 1, 2, 3, 4 ...
+   *
+   * @param value signed value
+   * @return zig-zag encoded value
+   * @since 2.2.1
+   */
+  public static int encodeZigZag(int value) {
+    return (value << 1) ^ (value >> 31);
+  }
+
+  /**
+   * Reverses {@link #encodeZigZag(int)}.
+   *
+   * @param value zig-zag encoded value
+   * @return signed value
+   * @since 2.2.1
+   */
+  public static int decodeZigZag(int value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  /**
+   * Maps the signed long to an unsigned one the same way as {@link #encodeZigZag(int)}.
+   *
+   * @param value signed value
+   * @return zig-zag encoded value
+   * @since 2.2.1
+   */
+  public static long encodeZigZag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  /**
+   * Reverses {@link #encodeZigZag(long)}.
+   *
+   * @param value zig-zag encoded value
+   * @return signed value
+   * @since 2.2.1
+   */
+  public static long decodeZigZag(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  /**
+   * Writes the signed integer zig-zag encoded, so that the values of small magnitude take few bytes
+   * irrespective of their sign. Assumes that the buffer has 5 positions at least starting with
+   * offset.
+   *
+   * @param value value to be written
+   * @param buffer array to write the value to
+   * @param offset position in the array to write the first byte at
+   * @return position in the array after the value
+   * @since 2.2.1
+   */
+  public static int writeSigned(int value, byte[] buffer, int offset) {
+    return write(encodeZigZag(value), buffer, offset);
+  }
+
+  /**
+   * Reads the signed integer written by {@link #writeSigned(int, byte[], int)}.
+   *
+   * @param readBuffer array containing the bytes to be parsed
+   * @param offset position of the first byte of the value
+   * @param limit position after the last byte which may be read
+   * @param newOffset receives the position after the value or the error code as described at {@link
+   *     #read(byte[], int, int, MutableInt)}
+   * @return value read, or 0 if the value could not be read
+   * @since 2.2.1
+   */
+  public static int readSigned(byte[] readBuffer, int offset, int limit, MutableInt newOffset) {
+    return decodeZigZag(read(readBuffer, offset, limit, newOffset));
+  }
+
+  /**
+   * Writes the signed long zig-zag encoded. Assumes that the buffer has 10 positions at least
+   * starting with offset.
+   *
+   * @param value value to be written
+   * @param buffer array to write the value to
+   * @param offset position in the array to write the first byte at
+   * @return position in the array after the value
+   * @since 2.2.1
+   */
+  public static int writeSignedLong(long value, byte[] buffer, int offset) {
+    return writeLong(encodeZigZag(value), buffer, offset);
+  }
+
+  /**
+   * Reads the signed long written by {@link #writeSignedLong(long, byte[], int)}.
+   *
+   * @param readBuffer array containing the bytes to be parsed
+   * @param offset position of the first byte of the value
+   * @param limit position after the last byte which may be read
+   * @param newOffset receives the position after the value or the error code as described at {@link
+   *     #readLong(byte[], int, int, MutableInt)}
+   * @return value read, or 0 if the value could not be read
+   * @since 2.2.1
+   */
+  public static long readSignedLong(
+      byte[] readBuffer, int offset, int limit, MutableInt newOffset) {
+    return decodeZigZag(readLong(readBuffer, offset, limit, newOffset));
+  }
+
+  /**
+   * Writes the Variable Sized Integer of Length 64 to the stream.
+   *
+   * @param value value to be written
+   * @param out stream to write the value to
+   * @throws IOException propagates the exceptions encountered while writing to the stream
+   * @since 2.2.1
+   */
+  public static void writeLong(long value, OutputStream out) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      out.write((int) (value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+
+    out.write((int) value);
+  }
+
+  /**
+   * Reads the Variable Sized Integer of Length 64 from the stream.
+   *
+   * @param in stream to read the value from
+   * @return value read
+   * @throws EOFException if the stream ends before the value is completely read
+   * @throws StreamCorruptedException if the value spans more than 10 bytes
+   * @throws IOException propagates the exceptions encountered while reading from the stream
+   * @since 2.2.1
+   */
+  public static long readLong(InputStream in) throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 70; shift += 7) {
+      final int tmp = in.read();
+      if (tmp == -1) {
+        throw new EOFException("Stream ended while reading varint.");
+      }
+
+      value |= (long) (tmp & 0x7f) << shift;
+      if ((tmp & 0x80) == 0) {
+        return value;
+      }
+    }
+
+    throw new StreamCorruptedException("Varint is longer than 10 bytes.");
+  }
+
+  /**
+   * Writes the Variable Sized Integer of Length 32 at the position of the buffer, which is advanced
+   * past the value.
+   *
+   * @param value value to be written
+   * @param buffer heap or direct buffer to write the value to
+   * @throws java.nio.BufferOverflowException if the value does not fit in the remaining bytes
+   * @since 2.2.1
+   */
+  public static void write(int value, ByteBuffer buffer) {
+    while ((value & ~0x7F) != 0) {
+      buffer.put((byte) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+
+    buffer.put((byte) value);
+  }
+
+  /**
+   * Reads the Variable Sized Integer of Length 32 at the position of the buffer, which is advanced
+   * past the value. If the value cannot be read, the position is left unchanged.
+   *
+   * @param buffer heap or direct buffer to read the value from
+   * @return value read
+   * @throws BufferUnderflowException if the buffer ends before the value is completely read
+   * @throws IllegalArgumentException if the value spans more than 5 bytes
+   * @since 2.2.1
+   */
+  public static int read(ByteBuffer buffer) {
+    final int position = buffer.position();
+    final int limit = buffer.limit();
+    int integer = 0;
+    for (int shift = 0, i = position; shift < 35; shift += 7) {
+      if (i >= limit) {
+        throw new BufferUnderflowException();
+      }
+
+      final byte tmp = buffer.get(i++);
+      integer |= (tmp & 0x7f) << shift;
+      if (tmp >= 0) {
+        ((Buffer) buffer).position(i);
+        return integer;
+      }
+    }
+
+    throw new IllegalArgumentException("Varint is longer than 5 bytes.");
+  }
+
+  /**
+   * Writes the Variable Sized Integer of Length 64 at the position of the buffer, which is advanced
+   * past the value.
+   *
+   * @param value value to be written
+   * @param buffer heap or direct buffer to write the value to
+   * @throws java.nio.BufferOverflowException if the value does not fit in the remaining bytes
+   * @since 2.2.1
+   */
+  public static void writeLong(long value, ByteBuffer buffer) {
+    while ((value & ~0x7FL) != 0) {
+      buffer.put((byte) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+
+    buffer.put((byte) value);
+  }
+
+  /**
+   * Reads the Variable Sized Integer of Length 64 at the position of the buffer, which is advanced
+   * past the value. If the value cannot be read, the position is left unchanged.
+   *
+   * @param buffer heap or direct buffer to read the value from
+   * @return value read
+   * @throws BufferUnderflowException if the buffer ends before the value is completely read
+   * @throws IllegalArgumentException if the value spans more than 10 bytes
+   * @since 2.2.1
+   */
+  public static long readLong(ByteBuffer buffer) {
+    final int position = buffer.position();
+    final int limit = buffer.limit();
+    long value = 0;
+    for (int shift = 0, i = position; shift < 70; shift += 7) {
+      if (i >= limit) {
+        throw new BufferUnderflowException();
+      }
+
+      final byte tmp = buffer.get(i++);
+      value |= (long) (tmp & 0x7f) << shift;
+      if (tmp >= 0) {
+        ((Buffer) buffer).position(i);
+        return value;
+      }
+    }
+
+    throw new IllegalArgumentException("Varint is longer than 10 bytes.");
+  }
+
+  /**
+   * Writes the signed integer zig-zag encoded at the position of the buffer.
+   *
+   * @param value value to be written
+   * @param buffer heap or direct buffer to write the value to
+   * @see #writeSigned(int, byte[], int)
+   * @since 2.2.1
+   */
+  public static void writeSigned(int value, ByteBuffer buffer) {
+    write(encodeZigZag(value), buffer);
+  }
+
+  /**
+   * Reads the signed integer written by {@link #writeSigned(int, ByteBuffer)}.
+   *
+   * @param buffer heap or direct buffer to read the value from
+   * @return value read
+   * @see #read(ByteBuffer)
+   * @since 2.2.1
+   */
+  public static int readSigned(ByteBuffer buffer) {
+    return decodeZigZag(read(buffer));
+  }
+
+  /**
+   * Writes the signed long zig-zag encoded at the position of the buffer.
+   *
+   * @param value value to be written
+   * @param buffer heap or direct buffer to write the value to
+   * @see #writeSignedLong(long, byte[], int)
+   * @since 2.2.1
+   */
+  public static void writeSignedLong(long value, ByteBuffer buffer) {
+    writeLong(encodeZigZag(value), buffer);
+  }
+
+  /**
+   * Reads the signed long written by {@link #writeSignedLong(long, ByteBuffer)}.
+   *
+   * @param buffer heap or direct buffer to read the value from
+   * @return value read
+   * @see #readLong(ByteBuffer)
+   * @since 2.2.1
+   */
+  public static long readSignedLong(ByteBuffer buffer) {
+    return decodeZigZag(readLong(buffer));
+  }
 }
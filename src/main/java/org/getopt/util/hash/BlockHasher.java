@@ -0,0 +1,121 @@
+/*
+ * Copyright © 2021 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.getopt.util.hash;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Base of the hashers whose functions consume the input in 4 byte little endian blocks. It splits
+ * the incoming pieces into the blocks, carrying the bytes of an incomplete block over to the next
+ * piece, and leaves the mixing of the blocks and the finalization to the subclasses.
+ */
+abstract class BlockHasher implements Hasher {
+  /** Bytes received after the last complete block. */
+  final byte[] tail = new byte[4];
+
+  int tailLength;
+  long count;
+
+  /**
+   * Accounts for the bytes about to be fed.
+   *
+   * @param length count of the bytes
+   */
+  void accept(int length) {
+    count += length;
+  }
+
+  /**
+   * Mixes the next complete block into the state.
+   *
+   * @param k the block read as a little endian integer
+   */
+  abstract void block(int k);
+
+  @Override
+  public Hasher update(byte[] data, int offset, int length) {
+    if (offset < 0 || length < 0 || offset > data.length - length) {
+      throw new IndexOutOfBoundsException(
+          "offset " + offset + ", length " + length + ", array length " + data.length);
+    }
+
+    accept(length);
+    if (tailLength > 0) {
+      while (tailLength < 4 && length > 0) {
+        tail[tailLength++] = data[offset++];
+        length--;
+      }
+      if (tailLength < 4) {
+        return this;
+      }
+
+      block(ByteBuffer.wrap(tail).order(ByteOrder.LITTLE_ENDIAN).getInt(0));
+      tailLength = 0;
+    }
+
+    final ByteBuffer words = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+    final int blocks = offset + (length & ~3);
+    for (; offset < blocks; offset += 4) {
+      block(words.getInt(offset));
+    }
+
+    for (int end = offset + (length & 3); offset < end; ) {
+      tail[tailLength++] = data[offset++];
+    }
+
+    return this;
+  }
+
+  @Override
+  public Hasher update(ByteBuffer data) {
+    if (data.hasArray()) {
+      update(data.array(), data.arrayOffset() + data.position(), data.remaining());
+      ((Buffer) data).position(data.limit());
+      return this;
+    }
+
+    int position = data.position();
+    final int limit = data.limit();
+    accept(limit - position);
+    if (tailLength > 0) {
+      while (tailLength < 4 && position < limit) {
+        tail[tailLength++] = data.get(position++);
+      }
+      if (tailLength < 4) {
+        ((Buffer) data).position(limit);
+        return this;
+      }
+
+      block(ByteBuffer.wrap(tail).order(ByteOrder.LITTLE_ENDIAN).getInt(0));
+      tailLength = 0;
+    }
+
+    final ByteBuffer words = data.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    final int blocks = position + ((limit - position) & ~3);
+    for (; position < blocks; position += 4) {
+      block(words.getInt(position));
+    }
+
+    while (position < limit) {
+      tail[tailLength++] = data.get(position++);
+    }
+
+    ((Buffer) data).position(limit);
+    return this;
+  }
+}
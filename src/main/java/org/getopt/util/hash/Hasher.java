@@ -0,0 +1,66 @@
+/*
+ * Copyright © 2021 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.getopt.util.hash;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Incremental hash function which consumes the bytes in pieces as they become available and
+ * produces the same value as the corresponding one-shot method would for their concatenation. It
+ * allows hashing the payloads which are read or received in chunks without first collecting them
+ * into a single array.
+ *
+ * <p>The hashers are not thread safe.
+ *
+ * @since 2.2.1
+ */
+public interface Hasher {
+  /**
+   * Feeds all the bytes of the array to the hash.
+   *
+   * @param data bytes to be hashed
+   * @return this hasher
+   */
+  default Hasher update(byte[] data) {
+    return update(data, 0, data.length);
+  }
+
+  /**
+   * Feeds the bytes of the array to the hash.
+   *
+   * @param data array containing the bytes
+   * @param offset start of the bytes in the array
+   * @param length count of the bytes
+   * @return this hasher
+   */
+  Hasher update(byte[] data, int offset, int length);
+
+  /**
+   * Feeds the remaining bytes of the buffer to the hash. The position of the buffer is advanced to
+   * its limit.
+   *
+   * @param data buffer containing the bytes, either heap or direct
+   * @return this hasher
+   */
+  Hasher update(ByteBuffer data);
+
+  /**
+   * Computes the hash of all the bytes fed so far. It does not change the state of the hasher.
+   *
+   * @return hash of the bytes
+   */
+  int finish();
+}
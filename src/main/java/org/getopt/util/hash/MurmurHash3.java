@@ -0,0 +1,334 @@
+/*
+ * Copyright © 2021 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.getopt.util.hash;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * MurmurHash3, the successor of {@link MurmurHash}, by Austin Appleby. See
+ * https://github.com/aappleby/smhasher for more details. Both the x86_32 variant producing 32 bit
+ * hashes and the x64_128 variant producing 128 bit hashes are ported. The results are identical to
+ * the ones produced by the reference implementation on a little endian machine with the seed
+ * treated as an unsigned 32 bit integer.
+ *
+ * <p>The 128 bit hash has a much lower probability of collisions in very large key sets, and its
+ * two independent 64 bit halves can directly feed double hashing schemes like the ones used by the
+ * Bloom filters.
+ *
+ * @since 2.2.1
+ */
+public class MurmurHash3 {
+  private static final int C1_32 = 0xcc9e2d51;
+  private static final int C2_32 = 0x1b873593;
+  private static final long C1_64 = 0x87c37b91114253d5L;
+  private static final long C2_64 = 0x4cf5ad432745937fL;
+
+  public static int hash32(byte[] data, int seed) {
+    return hash32(data, seed, 0, data.length);
+  }
+
+  /**
+   * Computes MurmurHash3 x86_32 of the bytes.
+   *
+   * @param data array containing the bytes
+   * @param seed seed for the hash
+   * @param offset start of the bytes in the array
+   * @param length count of bytes to hash
+   * @return 32 bit hash of the bytes
+   */
+  public static int hash32(byte[] data, int seed, int offset, int length) {
+    int h1 = seed;
+
+    final ByteBuffer words = littleEndian(data);
+    final int blocks = offset + (length & ~3);
+    for (int i = offset; i < blocks; i += 4) {
+      h1 ^= mixK1(words.getInt(i));
+      h1 = Integer.rotateLeft(h1, 13);
+      h1 = h1 * 5 + 0xe6546b64;
+    }
+
+    int k1 = 0;
+    switch (length & 3) {
+      case 3:
+        k1 ^= (data[blocks + 2] & 0xff) << 16;
+        // fall through
+      case 2:
+        k1 ^= (data[blocks + 1] & 0xff) << 8;
+        // fall through
+      case 1:
+        k1 ^= data[blocks] & 0xff;
+        h1 ^= mixK1(k1);
+        break;
+      default:
+        break;
+    }
+
+    h1 ^= length;
+    return fmix32(h1);
+  }
+
+  /**
+   * Creates a hasher which computes the same hash as {@link #hash32(byte[], int, int, int)} from
+   * the bytes fed to it in pieces. Unlike {@link MurmurHash#newHasher(int, int)}, it does not need
+   * to know the count of the bytes upfront.
+   *
+   * @param seed seed for the hash
+   * @return new hasher
+   */
+  public static Hasher newHasher32(int seed) {
+    return new StreamingHasher32(seed);
+  }
+
+  public static long hash64(byte[] data, int seed) {
+    return hash64(data, seed, 0, data.length);
+  }
+
+  /**
+   * Computes the first 64 bits of MurmurHash3 x64_128 of the bytes without allocating memory.
+   *
+   * @param data array containing the bytes
+   * @param seed seed for the hash
+   * @param offset start of the bytes in the array
+   * @param length count of bytes to hash
+   * @return 64 bit hash of the bytes
+   */
+  public static long hash64(byte[] data, int seed, int offset, int length) {
+    return hash128(data, seed, offset, length, null, false);
+  }
+
+  public static long[] hash128(byte[] data, int seed) {
+    return hash128(data, seed, 0, data.length);
+  }
+
+  /**
+   * Computes MurmurHash3 x64_128 of the bytes.
+   *
+   * @param data array containing the bytes
+   * @param seed seed for the hash
+   * @param offset start of the bytes in the array
+   * @param length count of bytes to hash
+   * @return array containing the lower 64 bits of the hash followed by the higher 64 bits
+   */
+  public static long[] hash128(byte[] data, int seed, int offset, int length) {
+    final long[] result = new long[2];
+    hash128(data, seed, offset, length, result);
+    return result;
+  }
+
+  /**
+   * Computes MurmurHash3 x64_128 of the bytes into the given array, so that the hash can be
+   * computed without allocating memory.
+   *
+   * @param data array containing the bytes
+   * @param seed seed for the hash
+   * @param offset start of the bytes in the array
+   * @param length count of bytes to hash
+   * @param result array of at least 2 elements which receives the lower 64 bits of the hash
+   *     followed by the higher 64 bits
+   */
+  public static void hash128(byte[] data, int seed, int offset, int length, long[] result) {
+    hash128(data, seed, offset, length, result, true);
+  }
+
+  /**
+   * Computes MurmurHash3 x64_128 of the bytes.
+   *
+   * @param result array receiving the hash if requested
+   * @param store whether to store the hash into the result array
+   * @return lower 64 bits of the hash
+   */
+  private static long hash128(
+      byte[] data, int seed, int offset, int length, long[] result, boolean store) {
+    long h1 = seed & 0xffffffffL;
+    long h2 = h1;
+
+    final ByteBuffer words = littleEndian(data);
+    final int blocks = offset + (length & ~15);
+    for (int i = offset; i < blocks; i += 16) {
+      long k1 = words.getLong(i);
+      long k2 = words.getLong(i + 8);
+
+      h1 ^= mixK1(k1);
+      h1 = Long.rotateLeft(h1, 27);
+      h1 += h2;
+      h1 = h1 * 5 + 0x52dce729;
+
+      h2 ^= mixK2(k2);
+      h2 = Long.rotateLeft(h2, 31);
+      h2 += h1;
+      h2 = h2 * 5 + 0x38495ab5;
+    }
+
+    long k1 = 0;
+    long k2 = 0;
+    switch (length & 15) {
+      case 15:
+        k2 ^= (data[blocks + 14] & 0xffL) << 48;
+        // fall through
+      case 14:
+        k2 ^= (data[blocks + 13] & 0xffL) << 40;
+        // fall through
+      case 13:
+        k2 ^= (data[blocks + 12] & 0xffL) << 32;
+        // fall through
+      case 12:
+        k2 ^= (data[blocks + 11] & 0xffL) << 24;
+        // fall through
+      case 11:
+        k2 ^= (data[blocks + 10] & 0xffL) << 16;
+        // fall through
+      case 10:
+        k2 ^= (data[blocks + 9] & 0xffL) << 8;
+        // fall through
+      case 9:
+        k2 ^= data[blocks + 8] & 0xffL;
+        h2 ^= mixK2(k2);
+        // fall through
+      case 8:
+        k1 ^= (data[blocks + 7] & 0xffL) << 56;
+        // fall through
+      case 7:
+        k1 ^= (data[blocks + 6] & 0xffL) << 48;
+        // fall through
+      case 6:
+        k1 ^= (data[blocks + 5] & 0xffL) << 40;
+        // fall through
+      case 5:
+        k1 ^= (data[blocks + 4] & 0xffL) << 32;
+        // fall through
+      case 4:
+        k1 ^= (data[blocks + 3] & 0xffL) << 24;
+        // fall through
+      case 3:
+        k1 ^= (data[blocks + 2] & 0xffL) << 16;
+        // fall through
+      case 2:
+        k1 ^= (data[blocks + 1] & 0xffL) << 8;
+        // fall through
+      case 1:
+        k1 ^= data[blocks] & 0xffL;
+        h1 ^= mixK1(k1);
+        break;
+      default:
+        break;
+    }
+
+    h1 ^= length;
+    h2 ^= length;
+
+    h1 += h2;
+    h2 += h1;
+
+    h1 = fmix64(h1);
+    h2 = fmix64(h2);
+
+    h1 += h2;
+    h2 += h1;
+
+    if (store) {
+      result[0] = h1;
+      result[1] = h2;
+    }
+
+    return h1;
+  }
+
+  /**
+   * Returns a little endian view of the array to read the blocks from. On Java 9 and later the
+   * reads through the view compile into single loads.
+   */
+  private static ByteBuffer littleEndian(byte[] data) {
+    return ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  private static int mixK1(int k1) {
+    k1 *= C1_32;
+    k1 = Integer.rotateLeft(k1, 15);
+    k1 *= C2_32;
+    return k1;
+  }
+
+  private static long mixK1(long k1) {
+    k1 *= C1_64;
+    k1 = Long.rotateLeft(k1, 31);
+    k1 *= C2_64;
+    return k1;
+  }
+
+  private static long mixK2(long k2) {
+    k2 *= C2_64;
+    k2 = Long.rotateLeft(k2, 33);
+    k2 *= C1_64;
+    return k2;
+  }
+
+  static int fmix32(int h) {
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    h *= 0xc2b2ae35;
+    h ^= h >>> 16;
+    return h;
+  }
+
+  static long fmix64(long k) {
+    k ^= k >>> 33;
+    k *= 0xff51afd7ed558ccdL;
+    k ^= k >>> 33;
+    k *= 0xc4ceb9fe1a85ec53L;
+    k ^= k >>> 33;
+    return k;
+  }
+
+  private static class StreamingHasher32 extends BlockHasher {
+    private int h1;
+
+    StreamingHasher32(int seed) {
+      h1 = seed;
+    }
+
+    @Override
+    void block(int k) {
+      h1 ^= mixK1(k);
+      h1 = Integer.rotateLeft(h1, 13);
+      h1 = h1 * 5 + 0xe6546b64;
+    }
+
+    @Override
+    public int finish() {
+      int h1 = this.h1;
+      int k1 = 0;
+      switch (tailLength) {
+        case 3:
+          k1 ^= (tail[2] & 0xff) << 16;
+          // fall through
+        case 2:
+          k1 ^= (tail[1] & 0xff) << 8;
+          // fall through
+        case 1:
+          k1 ^= tail[0] & 0xff;
+          h1 ^= mixK1(k1);
+          break;
+        default:
+          break;
+      }
+
+      h1 ^= (int) count;
+      return fmix32(h1);
+    }
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright © 2021 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.utils;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class BloomFilterTest {
+  private static Slice key(String prefix, int i) {
+    return new Slice((prefix + i).getBytes(StandardCharsets.US_ASCII));
+  }
+
+  private static void assertFilter(AbstractBloomFilter filter) {
+    int added = 0;
+    for (int i = 0; i < 10000; i++) {
+      if (filter.put(key("key", i))) {
+        added++;
+      }
+    }
+    /* the false positives make some of the new keys look existing */
+    assertTrue("New keys " + added, added > 9900);
+    assertFalse("Existing key", filter.put(key("key", 0)));
+
+    for (int i = 0; i < 10000; i++) {
+      assertTrue("No false negatives " + i, filter.mightContain(key("key", i)));
+    }
+
+    int falsePositives = 0;
+    for (int i = 0; i < 10000; i++) {
+      if (filter.mightContain(key("absent", i))) {
+        falsePositives++;
+      }
+    }
+    assertTrue("False positives " + falsePositives, falsePositives < 200);
+    assertTrue("Expected fpp " + filter.expectedFpp(), filter.expectedFpp() < 0.02);
+
+    byte[] padded = "--key42--".getBytes(StandardCharsets.US_ASCII);
+    assertTrue("Range", filter.mightContain(padded, 2, 5));
+  }
+
+  @Test
+  public void testBloomFilter() {
+    assertFilter(new BloomFilter(10000, 0.01));
+  }
+
+  @Test
+  public void testConcurrentBloomFilter() {
+    assertFilter(new ConcurrentBloomFilter(10000, 0.01));
+  }
+
+  @Test
+  public void testConcurrentAdditions() throws InterruptedException {
+    ConcurrentBloomFilter filter = new ConcurrentBloomFilter(40000, 0.01);
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      final int base = t * 10000;
+      threads.add(
+          new Thread(
+              () -> {
+                for (int i = base; i < base + 10000; i++) {
+                  filter.put(key("key", i));
+                }
+              }));
+    }
+    threads.forEach(Thread::start);
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    for (int i = 0; i < 40000; i++) {
+      assertTrue("No lost additions " + i, filter.mightContain(key("key", i)));
+    }
+  }
+
+  @Test
+  public void testSerialization() throws IOException {
+    BloomFilter filter = new BloomFilter(1000, 0.03);
+    for (int i = 0; i < 1000; i++) {
+      filter.put(key("key", i));
+    }
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    filter.writeTo(out);
+    assertEquals("Compact", 2 + filter.getNumBits() / 8, out.size());
+
+    ConcurrentBloomFilter copy =
+        ConcurrentBloomFilter.readFrom(new ByteArrayInputStream(out.toByteArray()));
+    assertEquals("Bits", filter.getNumBits(), copy.getNumBits());
+    assertEquals("Hashes", filter.getNumHashes(), copy.getNumHashes());
+    assertEquals("Bit count", filter.bitCount(), copy.bitCount());
+    for (int i = 0; i < 1000; i++) {
+      assertTrue("Key " + i, copy.mightContain(key("key", i)));
+    }
+  }
+
+  @Test
+  public void testGeometry() {
+    BloomFilter filter = BloomFilter.withGeometry(1000, 3);
+    assertEquals("Bits", 1024, filter.getNumBits());
+    assertEquals("Hashes", 3, filter.getNumHashes());
+    ConcurrentBloomFilter concurrent = ConcurrentBloomFilter.withGeometry(1000, 3);
+    assertEquals("Concurrent bits", 1024, concurrent.getNumBits());
+    assertEquals("Concurrent hashes", 3, concurrent.getNumHashes());
+
+    try {
+      new BloomFilter(1_000_000, 1);
+      fail("Certain false positives");
+    } catch (IllegalArgumentException expected) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testPutAll() {
+    BloomFilter first = BloomFilter.withGeometry(1024, 3);
+    BloomFilter second = BloomFilter.withGeometry(1024, 3);
+    first.put(key("key", 1));
+    second.put(key("key", 2));
+    first.putAll(second);
+    assertTrue("Own", first.mightContain(key("key", 1)));
+    assertTrue("Merged", first.mightContain(key("key", 2)));
+
+    first.clear();
+    assertEquals("Cleared", 0, first.bitCount());
+
+    try {
+      first.putAll(BloomFilter.withGeometry(2048, 3));
+      fail("Merged incompatible filters");
+    } catch (IllegalArgumentException expected) {
+      // expected
+    }
+  }
+}
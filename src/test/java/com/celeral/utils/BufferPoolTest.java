@@ -0,0 +1,110 @@
+/*
+ * Copyright © 2021 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.utils;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class BufferPoolTest {
+  @Test
+  public void testSizes() {
+    BufferPool pool = new BufferPool(4096, 2);
+    assertEquals(512, pool.acquire(0).length);
+    assertEquals(512, pool.acquire(512).length);
+    assertEquals(1024, pool.acquire(513).length);
+    assertEquals(4096, pool.acquire(4096).length);
+    assertEquals("beyond the largest class", 4097, pool.acquire(4097).length);
+    assertEquals("rounded maximum", 8192, new BufferPool(5000, 1).acquire(8192).length);
+  }
+
+  @Test
+  public void testReuse() {
+    BufferPool pool = new BufferPool(4096, 2);
+    byte[] first = pool.acquire(1000);
+    byte[] second = pool.acquire(1000);
+    byte[] third = pool.acquire(1000);
+    pool.release(first);
+    pool.release(second);
+    pool.release(third);
+
+    byte[] a = pool.acquire(1024);
+    byte[] b = pool.acquire(1024);
+    assertTrue("pooled", (a == first || a == second) && (b == first || b == second) && a != b);
+    assertNotSame("class full", third, pool.acquire(1024));
+    assertNotSame("different class", first, pool.acquire(2048));
+
+    byte[] foreign = new byte[1000];
+    pool.release(foreign);
+    byte[] large = new byte[8192];
+    pool.release(large);
+    assertNotSame(foreign, pool.acquire(1000));
+    assertNotSame(large, pool.acquire(8192));
+  }
+
+  @Test
+  public void testInvalid() {
+    try {
+      new BufferPool(100, 1);
+      fail("Maximum size below the minimum");
+    } catch (IllegalArgumentException expected) {
+      // expected
+    }
+
+    try {
+      new BufferPool(4096, 0);
+      fail("No buffers per size");
+    } catch (IllegalArgumentException expected) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testConcurrent() throws Exception {
+    /* an array handed out twice would be seen modified by another thread */
+    BufferPool pool = new BufferPool(4096, 4);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      Future<?>[] futures = new Future<?>[4];
+      for (int t = 0; t < futures.length; t++) {
+        final byte mark = (byte) t;
+        futures[t] =
+            executor.submit(
+                () -> {
+                  for (int i = 0; i < 100_000; i++) {
+                    byte[] buffer = pool.acquire(512 << (i & 3));
+                    buffer[0] = mark;
+                    Thread.yield();
+                    assertEquals(mark, buffer[0]);
+                    pool.release(buffer);
+                  }
+                  return null;
+                });
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+      executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+  }
+}
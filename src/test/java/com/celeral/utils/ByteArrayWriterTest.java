@@ -0,0 +1,128 @@
+/*
+ * Copyright © 2021 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.utils;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ByteArrayWriterTest {
+  @Test
+  public void testWriteAndGrow() {
+    ByteArrayWriter writer = new ByteArrayWriter(4);
+    byte[] initial = writer.getBuffer();
+    Slice hello = new Slice("--hello--".getBytes(StandardCharsets.US_ASCII), 2, 5);
+
+    writer
+        .writeByte(7)
+        .writeVarInt(300)
+        .writeVarLong(Long.MIN_VALUE)
+        .writeSignedVarInt(-2)
+        .writeSignedVarLong(-3)
+        .writeInt(0x01020304)
+        .writeLong(-5)
+        .writeSlice(hello)
+        .writeBytes("raw".getBytes(StandardCharsets.US_ASCII));
+    assertNotSame("Grown", initial, writer.getBuffer());
+
+    Slice contents = writer.toSlice();
+    assertSame("No copy", writer.getBuffer(), contents.buffer);
+    assertEquals("Size", writer.size(), contents.length);
+    assertArrayEquals("Copy", contents.toByteArray(), writer.toByteArray());
+
+    byte[] bytes = contents.toByteArray();
+    VarInt.MutableInt offset = new VarInt.MutableInt();
+    assertEquals("Byte", 7, bytes[0]);
+    assertEquals("VarInt", 300, VarInt.read(bytes, 1, bytes.length, offset));
+    assertEquals(
+        "VarLong", Long.MIN_VALUE, VarInt.readLong(bytes, offset.integer, bytes.length, offset));
+    assertEquals("Signed", -2, VarInt.readSigned(bytes, offset.integer, bytes.length, offset));
+    assertEquals(
+        "Signed long", -3, VarInt.readSignedLong(bytes, offset.integer, bytes.length, offset));
+
+    ByteBuffer fixed = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    assertEquals("Int", 0x01020304, fixed.getInt(offset.integer));
+    assertEquals("Long", -5, fixed.getLong(offset.integer + 4));
+
+    int length = VarInt.read(bytes, offset.integer + 12, bytes.length, offset);
+    assertEquals("Slice", hello, new Slice(bytes, offset.integer, length));
+    assertEquals(
+        "Raw",
+        "raw",
+        new Slice(bytes, offset.integer + length, 3).stringValue(StandardCharsets.US_ASCII));
+    assertEquals("End", bytes.length, offset.integer + length + 3);
+  }
+
+  @Test
+  public void testBackpatching() {
+    ByteArrayWriter writer = new ByteArrayWriter();
+    int prefix = writer.reserve(5);
+    writer.writeBytes(new byte[200]);
+    writer.patchVarInt(prefix, writer.size() - 5, 5);
+
+    byte[] bytes = writer.toByteArray();
+    VarInt.MutableInt offset = new VarInt.MutableInt();
+    assertEquals("Padded prefix", 200, VarInt.read(bytes, 0, bytes.length, offset));
+    assertEquals("Prefix width", 5, offset.integer);
+
+    try {
+      writer.patchVarInt(prefix, 1 << 14, 2);
+      fail("Patched varint wider than the space");
+    } catch (IllegalArgumentException expected) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testReset() {
+    ByteArrayWriter writer = new ByteArrayWriter(new byte[64]);
+    byte[] pooled = writer.getBuffer();
+    writer.writeLong(1).writeLong(2);
+    writer.reset();
+    assertEquals("Empty", 0, writer.size());
+    writer.writeVarInt(1);
+    assertSame("Reused", pooled, writer.getBuffer());
+    assertEquals("Contents", 1, writer.toSlice().byteAt(0));
+  }
+
+  @Test
+  public void testPooled() {
+    BufferPool pool = new BufferPool(4096, 2);
+    ByteArrayWriter writer = new ByteArrayWriter(pool, 512);
+    byte[] initial = writer.getBuffer();
+    assertEquals(512, initial.length);
+
+    byte[] bytes = new byte[600];
+    new Random(5).nextBytes(bytes);
+    writer.writeBytes(bytes);
+    byte[] grown = writer.getBuffer();
+    assertEquals("Grown from the pool", 1024, grown.length);
+    assertArrayEquals("Contents kept while growing", bytes, writer.toByteArray());
+    assertSame("Outgrown array released", initial, pool.acquire(512));
+
+    writer.close();
+    assertEquals("Discarded", 0, writer.size());
+    assertSame("Released on close", grown, pool.acquire(1024));
+
+    writer.writeVarInt(300);
+    assertEquals("Usable after close", 300, new SliceReader(writer.toSlice()).readVarInt());
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright © 2021 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.utils;
+
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class ConsistentHashRingTest {
+  static final int KEYS = 20000;
+
+  private static Slice key(int i) {
+    return new Slice(("key" + i).getBytes(StandardCharsets.US_ASCII));
+  }
+
+  private static Map<String, Integer> distribution(ConsistentHashRing<String> ring) {
+    Map<String, Integer> counts = new HashMap<>();
+    for (int i = 0; i < KEYS; i++) {
+      counts.merge(ring.get(key(i)), 1, Integer::sum);
+    }
+    return counts;
+  }
+
+  @Test
+  public void testDistribution() {
+    ConsistentHashRing<String> ring = new ConsistentHashRing<>();
+    assertNull("Empty", ring.get(key(0)));
+
+    for (int i = 0; i < 4; i++) {
+      assertTrue("Added", ring.add("node" + i));
+    }
+    assertFalse("Duplicate", ring.add("node0"));
+    assertEquals("Size", 4, ring.size());
+
+    for (Map.Entry<String, Integer> entry : distribution(ring).entrySet()) {
+      assertTrue(entry.toString(), entry.getValue() > KEYS / 4 * 0.8);
+      assertTrue(entry.toString(), entry.getValue() < KEYS / 4 * 1.2);
+    }
+  }
+
+  @Test
+  public void testWeights() {
+    ConsistentHashRing<String> ring = new ConsistentHashRing<>(100);
+    ring.add("light");
+    ring.add("heavy", 3);
+    assertEquals("Weight", Integer.valueOf(3), ring.getNodes().get("heavy"));
+
+    Map<String, Integer> counts = distribution(ring);
+    double ratio = (double) counts.get("heavy") / counts.get("light");
+    assertTrue("Ratio " + ratio, ratio > 2.4 && ratio < 3.6);
+  }
+
+  @Test
+  public void testMembershipChanges() {
+    ConsistentHashRing<String> ring = new ConsistentHashRing<>();
+    for (int i = 0; i < 5; i++) {
+      ring.add("node" + i);
+    }
+    String[] before = new String[KEYS];
+    for (int i = 0; i < KEYS; i++) {
+      before[i] = ring.get(key(i));
+    }
+
+    ring.add("node5");
+    int moved = 0;
+    for (int i = 0; i < KEYS; i++) {
+      String owner = ring.get(key(i));
+      if (!owner.equals(before[i])) {
+        assertEquals("Moved only to the new node", "node5", owner);
+        moved++;
+      }
+    }
+    assertTrue("Moved " + moved, moved > KEYS / 6 * 0.8 && moved < KEYS / 6 * 1.2);
+
+    assertTrue("Removed", ring.remove("node5"));
+    assertFalse("Absent", ring.remove("node5"));
+    for (int i = 0; i < KEYS; i++) {
+      assertEquals("Restored " + i, before[i], ring.get(key(i)));
+    }
+
+    ring.remove("node2");
+    for (int i = 0; i < KEYS; i++) {
+      if (!"node2".equals(before[i])) {
+        assertEquals("Stayed " + i, before[i], ring.get(key(i)));
+      }
+    }
+  }
+
+  @Test
+  public void testJumpConsistentHash() {
+    /* computed with the reference implementation from the paper */
+    assertEquals(8421, JumpConsistentHash.bucket(1L, 16807));
+    assertEquals(285, JumpConsistentHash.bucket(0xdeadbeefL, 343));
+    assertEquals(1921, JumpConsistentHash.bucket(-1L, 2401));
+    assertEquals(76, JumpConsistentHash.bucket(123456789012345L, 2401));
+
+    int[] counts = new int[10];
+    for (int i = 0; i < KEYS; i++) {
+      Slice key = key(i);
+      int bucket = JumpConsistentHash.bucket(key, 10);
+      counts[bucket]++;
+
+      int grown = JumpConsistentHash.bucket(key, 11);
+      assertTrue("Moved only to the new bucket", grown == bucket || grown == 10);
+      assertEquals("Single bucket", 0, JumpConsistentHash.bucket(key, 1));
+    }
+
+    for (int count : counts) {
+      assertTrue("Count " + count, count > KEYS / 10 * 0.8 && count < KEYS / 10 * 1.2);
+    }
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright © 2021 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.utils;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class CountMinSketchTest {
+  private static Slice key(int i) {
+    return new Slice(("key" + i).getBytes(StandardCharsets.US_ASCII));
+  }
+
+  /** Adds i occurrences of the key i for i up to 1000 and checks the estimates. */
+  private static void assertSketch(AbstractCountMinSketch sketch) {
+    long total = 0;
+    for (int i = 0; i < 1000; i++) {
+      sketch.add(key(i), i);
+      total += i;
+    }
+    assertEquals("Total", total, sketch.getTotalCount());
+
+    /* epsilon of 0.001 bounds the overcount by the 0.1% of the total */
+    long bound = total / 1000;
+    int exceeded = 0;
+    for (int i = 0; i < 1000; i++) {
+      long estimate = sketch.estimateCount(key(i));
+      assertTrue("Never undercounts " + i, estimate >= i);
+      if (estimate > i + bound) {
+        exceeded++;
+      }
+    }
+    assertTrue("Exceeded the bound " + exceeded, exceeded < 10);
+
+    byte[] padded = "--key42--".getBytes(StandardCharsets.US_ASCII);
+    assertTrue("Range", sketch.estimateCount(padded, 2, 5) >= 42);
+  }
+
+  @Test
+  public void testCountMinSketch() {
+    assertSketch(new CountMinSketch(0.001, 0.01));
+  }
+
+  @Test
+  public void testConcurrentCountMinSketch() {
+    assertSketch(new ConcurrentCountMinSketch(0.001, 0.01));
+  }
+
+  @Test
+  public void testConcurrentAdditions() throws InterruptedException {
+    ConcurrentCountMinSketch sketch = new ConcurrentCountMinSketch(4, 1024);
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      threads.add(
+          new Thread(
+              () -> {
+                for (int i = 0; i < 10000; i++) {
+                  sketch.add(key(i % 10), 1);
+                }
+              }));
+    }
+    threads.forEach(Thread::start);
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertEquals("Total", 40000, sketch.getTotalCount());
+    for (int i = 0; i < 10; i++) {
+      assertTrue("No lost additions " + i, sketch.estimateCount(key(i)) >= 4000);
+    }
+  }
+
+  @Test
+  public void testSerialization() throws IOException {
+    CountMinSketch sketch = new CountMinSketch(3, 100);
+    for (int i = 0; i < 100; i++) {
+      sketch.add(key(i), i * 1000L);
+    }
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    sketch.writeTo(out);
+    ConcurrentCountMinSketch copy =
+        ConcurrentCountMinSketch.readFrom(new ByteArrayInputStream(out.toByteArray()));
+    assertEquals("Depth", 3, copy.getDepth());
+    assertEquals("Width", 100, copy.getWidth());
+    assertEquals("Total", sketch.getTotalCount(), copy.getTotalCount());
+    for (int i = 0; i < 100; i++) {
+      assertEquals("Key " + i, sketch.estimateCount(key(i)), copy.estimateCount(key(i)));
+    }
+
+    CountMinSketch merged = new CountMinSketch(3, 100);
+    merged.addAll(copy);
+    merged.addAll(sketch);
+    assertEquals("Merged total", 2 * sketch.getTotalCount(), merged.getTotalCount());
+    merged.clear();
+    assertEquals("Cleared", 0, merged.estimateCount(key(99)));
+  }
+}
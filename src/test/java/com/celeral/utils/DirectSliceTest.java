@@ -0,0 +1,77 @@
+/*
+ * Copyright © 2021 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.utils;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.HashMap;
+
+import org.junit.Test;
+
+public class DirectSliceTest {
+  private static DirectSlice direct(byte[] bytes, int padding) {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length + 2 * padding);
+    buffer.position(padding);
+    buffer.put(bytes);
+    buffer.position(padding);
+    return new DirectSlice(buffer, padding, bytes.length);
+  }
+
+  @Test
+  public void testContract() {
+    byte[] bytes = "The quick brown fox jumps over the lazy dog".getBytes();
+
+    DirectSlice first = direct(bytes, 3);
+    DirectSlice second = direct(bytes, 11);
+    assertEquals("Equal contents", first, second);
+    assertEquals("Hash of contents", first.hashCode(), second.hashCode());
+    assertEquals("Same hash as Slice", new Slice(bytes).hashCode(), first.hashCode());
+    assertArrayEquals("Bytes", bytes, first.toByteArray());
+    assertEquals("String", new String(bytes), first.stringValue());
+    assertEquals("Position untouched", 3, first.buffer.position());
+
+    second.buffer.put(11 + bytes.length - 1, (byte) '!');
+    assertNotEquals("Different contents", first, second);
+  }
+
+  @Test
+  public void testMixedByteOrder() {
+    byte[] bytes = "The quick brown fox jumps over the lazy dog".getBytes();
+
+    DirectSlice big = direct(bytes, 3);
+    DirectSlice little = direct(bytes, 5);
+    little.buffer.order(ByteOrder.LITTLE_ENDIAN);
+    assertEquals("Equal contents", big, little);
+    assertEquals("Equal contents reversed", little, big);
+    assertEquals("Hash of contents", big.hashCode(), little.hashCode());
+
+    little.buffer.put(5, (byte) 't');
+    assertNotEquals("Different contents", big, little);
+  }
+
+  @Test
+  public void testMapKey() {
+    HashMap<DirectSlice, String> map = new HashMap<>();
+    map.put(direct("alpha".getBytes(), 0), "a");
+    map.put(direct("beta".getBytes(), 0), "b");
+
+    assertEquals("alpha", "a", map.get(direct("alpha".getBytes(), 7)));
+    assertEquals("beta", "b", map.get(direct("beta".getBytes(), 9)));
+    assertNull("gamma", map.get(direct("gamma".getBytes(), 0)));
+  }
+}
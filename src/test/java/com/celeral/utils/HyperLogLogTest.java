@@ -0,0 +1,103 @@
+/*
+ * Copyright © 2021 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.utils;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+public class HyperLogLogTest {
+  private static Slice key(int i) {
+    return new Slice(("key" + i).getBytes(StandardCharsets.US_ASCII));
+  }
+
+  private static void assertEstimate(long expected, HyperLogLog hll) {
+    /* 4 standard errors */
+    double tolerance = 4 * 1.04 / Math.sqrt(1 << hll.getPrecision());
+    long estimate = hll.cardinality();
+    assertTrue(
+        "Estimate " + estimate + " of " + expected,
+        Math.abs(estimate - expected) <= Math.max(1, expected * tolerance));
+  }
+
+  @Test
+  public void testCardinality() {
+    for (int precision = HyperLogLog.MIN_PRECISION;
+        precision <= HyperLogLog.MAX_PRECISION;
+        precision += 7) {
+      HyperLogLog hll = new HyperLogLog(precision);
+      assertEquals("Empty", 0, hll.cardinality());
+
+      int added = 0;
+      for (int count : new int[] {10, 1000, 100000, 1000000}) {
+        for (; added < count; added++) {
+          hll.add(key(added));
+          /* duplicates do not count */
+          hll.add(key(added / 2));
+        }
+        assertEstimate(count, hll);
+      }
+    }
+  }
+
+  @Test
+  public void testMerge() {
+    HyperLogLog first = new HyperLogLog();
+    HyperLogLog second = new HyperLogLog();
+    for (int i = 0; i < 60000; i++) {
+      first.add(key(i));
+      second.add(key(i + 40000));
+    }
+
+    first.merge(second);
+    assertEstimate(100000, first);
+
+    try {
+      first.merge(new HyperLogLog(10));
+      fail("Merged incompatible estimators");
+    } catch (IllegalArgumentException expected) {
+      // expected
+    }
+
+    first.clear();
+    assertEquals("Cleared", 0, first.cardinality());
+  }
+
+  @Test
+  public void testSerialization() throws IOException {
+    HyperLogLog hll = new HyperLogLog(12);
+    byte[] padded = new byte[8];
+    for (int i = 0; i < 5000; i++) {
+      padded[2] = (byte) i;
+      padded[3] = (byte) (i >> 8);
+      hll.add(padded, 2, 4);
+    }
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    hll.writeTo(out);
+    assertEquals("Size", 1 + (1 << 12), out.size());
+
+    HyperLogLog copy = HyperLogLog.readFrom(new ByteArrayInputStream(out.toByteArray()));
+    assertEquals("Precision", 12, copy.getPrecision());
+    assertEquals("Cardinality", hll.cardinality(), copy.cardinality());
+    assertEstimate(5000, copy);
+  }
+}
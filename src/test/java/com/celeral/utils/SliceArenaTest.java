@@ -0,0 +1,90 @@
+/*
+ * Copyright © 2021 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.utils;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class SliceArenaTest {
+  @Test
+  public void testAllocationAndReuse() {
+    try (SliceArena arena = new SliceArena(64)) {
+      Slice first = arena.copyOf("0123456789".getBytes(), 0, 10);
+      Slice second = arena.copyOf(new Slice("abcdef".getBytes()));
+      assertSame("Shared chunk", first.buffer, second.buffer);
+      assertEquals("Adjacent", first.offset + first.length, second.offset);
+      assertEquals("First", "0123456789", first.stringValue());
+      assertEquals("Second", "abcdef", second.stringValue());
+
+      for (int i = 0; i < 10; i++) {
+        arena.allocate(16);
+      }
+      assertEquals("Chunks", 3, arena.getChunkCount());
+
+      Slice large = arena.allocate(17);
+      assertEquals("Dedicated array", 17, large.buffer.length);
+
+      arena.release();
+      Slice reused = arena.allocate(4, new Slice(null, 0, 0));
+      assertSame("Reused chunk", first.buffer, reused.buffer);
+      assertEquals("From the beginning", 0, reused.offset);
+
+      for (int i = 0; i < 11; i++) {
+        arena.allocate(16);
+      }
+      assertEquals("No new chunks", 3, arena.getChunkCount());
+    }
+  }
+
+  @Test
+  public void testNegativeLength() {
+    try (SliceArena arena = new SliceArena(64)) {
+      Slice first = arena.allocate(8);
+      try {
+        arena.allocate(-5);
+        fail("Negative length");
+      } catch (IllegalArgumentException expected) {
+        // expected
+      }
+
+      Slice second = arena.allocate(8);
+      assertEquals("No overlap", first.offset + first.length, second.offset);
+    }
+  }
+
+  @Test
+  public void testEmpty() {
+    try (SliceArena arena = new SliceArena(64)) {
+      Slice empty = arena.allocate(0);
+      assertNotNull("Before the first chunk", empty.buffer);
+      assertEquals(0, empty.length);
+      assertEquals("", empty.stringValue());
+      assertEquals(0, empty.toByteArray().length);
+      assertEquals(new Slice(new byte[0]), empty);
+      assertEquals(new Slice(new byte[0]).hashCode(), empty.hashCode());
+
+      assertEquals("Copy of empty range", 0, arena.copyOf(new byte[0], 0, 0).length);
+      assertEquals("Copy of empty slice", 0, arena.copyOf(new Slice(new byte[3], 1, 0)).length);
+
+      arena.allocate(8);
+      arena.release();
+      Slice afterRelease = arena.allocate(0);
+      assertEquals("After release", "", afterRelease.stringValue());
+      assertTrue(afterRelease.offset <= afterRelease.buffer.length);
+    }
+  }
+}
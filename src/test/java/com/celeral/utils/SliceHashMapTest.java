@@ -0,0 +1,73 @@
+/*
+ * Copyright © 2021 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.utils;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class SliceHashMapTest {
+  @Test
+  public void testLookupWithoutSlice() {
+    SliceHashMap<String> map = new SliceHashMap<>();
+    byte[] frame = "GET /index.html HTTP/1.1".getBytes();
+
+    assertNull("New key", map.put(frame, 0, 3, "method"));
+    assertEquals("Lookup by range", "method", map.get("GET".getBytes(), 0, 3));
+    assertEquals("Lookup by slice", "method", map.get(new Slice(frame, 0, 3)));
+    assertEquals("Replace", "method", map.put(new Slice("GET".getBytes()), "verb"));
+    assertEquals("Size", 1, map.size());
+
+    assertFalse("Absent", map.containsKey(frame, 4, 11));
+    assertEquals("Remove", "verb", map.remove(frame, 0, 3));
+    assertTrue("Empty", map.isEmpty());
+  }
+
+  @Test
+  public void testAgainstHashMap() {
+    Random random = new Random(7);
+    SliceHashMap<Integer> map = new SliceHashMap<>(2, 4);
+    HashMap<Slice, Integer> expected = new HashMap<>();
+
+    for (int i = 0; i < 50000; i++) {
+      byte[] key = new byte[random.nextInt(6)];
+      random.nextBytes(key);
+      Slice slice = new Slice(key);
+
+      switch (random.nextInt(3)) {
+        case 0:
+          assertEquals("put", expected.put(slice, i), map.put(key, 0, key.length, i));
+          break;
+
+        case 1:
+          assertEquals("remove", expected.remove(slice), map.remove(slice));
+          break;
+
+        default:
+          assertEquals("get", expected.get(slice), map.get(slice));
+          break;
+      }
+      assertEquals("size", expected.size(), map.size());
+    }
+
+    HashMap<Slice, Integer> actual = new HashMap<>();
+    map.forEach((key, value) -> actual.put(new Slice(key.toByteArray()), value));
+    assertEquals("All the mappings", expected, actual);
+  }
+}
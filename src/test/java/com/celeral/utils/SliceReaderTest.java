@@ -0,0 +1,187 @@
+/*
+ * Copyright © 2021 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.utils;
+
+import static org.junit.Assert.*;
+
+import java.nio.BufferUnderflowException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class SliceReaderTest {
+  @Test
+  public void testRoundTrip() {
+    Slice hello = new Slice("--hello--".getBytes(StandardCharsets.US_ASCII), 2, 5);
+    ByteArrayWriter writer =
+        new ByteArrayWriter()
+            .writeByte(7)
+            .writeVarInt(300)
+            .writeVarInt(-1)
+            .writeVarLong(Long.MIN_VALUE)
+            .writeSignedVarInt(-2)
+            .writeSignedVarLong(-3)
+            .writeInt(0x01020304)
+            .writeLong(-5)
+            .writeSlice(hello)
+            .writeSlice(new Slice("\u00fcmlaut".getBytes(StandardCharsets.UTF_8)))
+            .writeSlice(new Slice(new byte[0]));
+
+    SliceReader reader = new SliceReader(writer.toSlice());
+    assertEquals(writer.size(), reader.remaining());
+    assertEquals(7, reader.readByte());
+    assertEquals(300, reader.readVarInt());
+    assertEquals(-1, reader.readVarInt());
+    assertEquals(Long.MIN_VALUE, reader.readVarLong());
+    assertEquals(-2, reader.readSignedVarInt());
+    assertEquals(-3, reader.readSignedVarLong());
+    assertEquals(0x01020304, reader.readInt());
+    assertEquals(-5, reader.readLong());
+
+    Slice slice = reader.readSlice();
+    assertEquals(hello, slice);
+    assertSame("view", writer.getBuffer(), slice.buffer);
+
+    assertEquals("\u00fcmlaut", reader.readString());
+    assertEquals("", reader.readString());
+    assertFalse(reader.hasRemaining());
+    assertEquals(writer.size(), reader.position());
+  }
+
+  @Test
+  public void testReset() {
+    byte[] bytes = {0, 0, 1, 2, 3, 0};
+    SliceReader reader = new SliceReader();
+    assertFalse(reader.hasRemaining());
+
+    reader.reset(new Slice(bytes, 2, 3));
+    assertEquals(0, reader.position());
+    assertEquals(1, reader.readByte());
+    assertEquals(1, reader.position());
+    reader.skip(1);
+    assertEquals(new Slice(bytes, 4, 1), reader.readSlice(1));
+    assertEquals(0, reader.remaining());
+
+    reader.reset(bytes, 1, 2);
+    assertEquals(0, reader.require(2).readVarInt());
+    assertEquals(1, reader.readVarInt());
+
+    try {
+      reader.reset(bytes, 4, 3);
+      fail("Range beyond the array");
+    } catch (IndexOutOfBoundsException expected) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testUnderflow() {
+    /* the reads must not stray into the bytes following the slice */
+    byte[] bytes = {1, 2, 3, (byte) 0x80, 4, 5, 6, 7, 8, 9, 10};
+    SliceReader reader = new SliceReader(new Slice(bytes, 0, 4));
+
+    try {
+      reader.require(5);
+      fail("Requires more than remains");
+    } catch (BufferUnderflowException expected) {
+      // expected
+    }
+
+    try {
+      reader.readLong();
+      fail("Long beyond the limit");
+    } catch (BufferUnderflowException expected) {
+      // expected
+    }
+
+    reader.skip(3);
+    try {
+      reader.readVarInt();
+      fail("Truncated varint");
+    } catch (BufferUnderflowException expected) {
+      // expected
+    }
+
+    try {
+      reader.readVarLong();
+      fail("Truncated varlong");
+    } catch (BufferUnderflowException expected) {
+      // expected
+    }
+    assertEquals("position unchanged", 3, reader.position());
+
+    reader.reset(new byte[] {5, 'a', 'b'}, 0, 3);
+    try {
+      reader.readSlice();
+      fail("Slice longer than the remaining bytes");
+    } catch (BufferUnderflowException expected) {
+      // expected
+    }
+    assertEquals("position unchanged", 0, reader.position());
+  }
+
+  @Test
+  public void testNegativeCount() {
+    SliceReader reader = new SliceReader(new Slice(new byte[] {1, 2, 3, 4}, 1, 2));
+    reader.skip(1);
+
+    try {
+      reader.skip(-1);
+      fail("Skipping backwards");
+    } catch (IllegalArgumentException expected) {
+      // expected
+    }
+
+    try {
+      reader.readSlice(-1);
+      fail("Negative slice length");
+    } catch (IllegalArgumentException expected) {
+      // expected
+    }
+
+    try {
+      reader.require(-1);
+      fail("Negative requirement");
+    } catch (IllegalArgumentException expected) {
+      // expected
+    }
+    assertEquals("position unchanged", 1, reader.position());
+    assertEquals(3, reader.readByte());
+  }
+
+  @Test
+  public void testMalformed() {
+    byte[] bytes = new byte[11];
+    Arrays.fill(bytes, (byte) 0x80);
+    SliceReader reader = new SliceReader(new Slice(bytes));
+
+    try {
+      reader.readVarInt();
+      fail("Varint longer than 5 bytes");
+    } catch (IllegalArgumentException expected) {
+      // expected
+    }
+
+    try {
+      reader.readVarLong();
+      fail("Varint longer than 10 bytes");
+    } catch (IllegalArgumentException expected) {
+      // expected
+    }
+    assertEquals("position unchanged", 0, reader.position());
+  }
+}
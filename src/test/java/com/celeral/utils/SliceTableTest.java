@@ -0,0 +1,89 @@
+/*
+ * Copyright © 2021 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.utils;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class SliceTableTest {
+  @Test
+  public void testIntern() {
+    SliceTable table = new SliceTable();
+    byte[] frame = "tenant=acme;metric=cpu".getBytes();
+
+    ImmutableSlice tenant = table.intern(frame, 7, 4);
+    assertEquals("Contents", "acme", tenant.stringValue());
+    assertEquals("Right sized copy", 4, tenant.buffer.length);
+    assertSame("Canonical", tenant, table.intern(new Slice("acme".getBytes())));
+    assertNotSame("Different contents", tenant, table.intern(frame, 19, 3));
+    assertEquals("Size", 2, table.size());
+  }
+
+  @Test
+  public void testRemovalOfUnreferenced() throws InterruptedException {
+    SliceTable table = new SliceTable();
+    ImmutableSlice slice = table.intern(new Slice("transient".getBytes()));
+    assertEquals("Interned", 1, table.size());
+    slice = null;
+
+    for (int i = 0; i < 100; i++) {
+      System.gc();
+      if (table.size() == 0) {
+        break;
+      }
+
+      Thread.sleep(5);
+    }
+
+    assertEquals("Table Empty", 0, table.size());
+  }
+
+  @Test
+  public void testConcurrentIntern() throws Exception {
+    SliceTable table = new SliceTable();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      ArrayList<Future<ImmutableSlice[]>> futures = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  ImmutableSlice[] interned = new ImmutableSlice[100];
+                  for (int i = 0; i < interned.length; i++) {
+                    interned[i] = table.intern(new Slice(("key" + i).getBytes()));
+                  }
+                  return interned;
+                }));
+      }
+
+      ImmutableSlice[] first = futures.get(0).get();
+      for (Future<ImmutableSlice[]> future : futures) {
+        ImmutableSlice[] interned = future.get();
+        for (int i = 0; i < interned.length; i++) {
+          assertSame("Same canonical slice", first[i], interned[i]);
+        }
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright © 2021 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.utils;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+public class SliceTest {
+  private static Slice padded(byte[] bytes, int padding) {
+    byte[] buffer = new byte[bytes.length + 2 * padding];
+    System.arraycopy(bytes, 0, buffer, padding, bytes.length);
+    return new Slice(buffer, padding, bytes.length);
+  }
+
+  @Test
+  public void testHashIgnoresOffset() {
+    byte[] padded = "--key--".getBytes();
+    Slice embedded = new Slice(padded, 2, 3);
+    Slice exact = new Slice("key".getBytes());
+    assertEquals("Equal slices", exact, embedded);
+    assertEquals("Equal slices hash equally", exact.hashCode(), embedded.hashCode());
+  }
+
+  @Test
+  public void testEqualsAtEveryMismatch() {
+    Random random = new Random(42);
+    for (int length : new int[] {0, 1, 7, 8, 15, 16, 17, 63, 1024, 4099}) {
+      byte[] bytes = new byte[length];
+      random.nextBytes(bytes);
+
+      Slice first = padded(bytes, 3);
+      Slice second = padded(bytes, 5);
+      assertEquals("Equal " + length, first, second);
+      assertEquals("Compare " + length, 0, first.compareTo(second));
+
+      for (int i = 0; i < length; i++) {
+        second.buffer[second.offset + i]++;
+        assertNotEquals("Mismatch at " + i, first, second);
+        assertEquals(
+            "Sign at " + i,
+            Integer.signum((bytes[i] & 0xff) - ((bytes[i] + 1) & 0xff)),
+            Integer.signum(first.compareTo(second)));
+        second.buffer[second.offset + i]--;
+      }
+    }
+  }
+
+  @Test
+  public void testUnsignedLexicographicOrder() {
+    TreeSet<Slice> set = new TreeSet<>();
+    set.add(new Slice(new byte[] {(byte) 0x80}));
+    set.add(new Slice(new byte[] {0x7f}));
+    set.add(new Slice(new byte[] {0x7f, 0}));
+    set.add(new Slice(new byte[0]));
+
+    Slice[] ordered = set.toArray(new Slice[0]);
+    assertEquals("Empty first", 0, ordered[0].length);
+    assertArrayEquals("Prefix", new byte[] {0x7f}, ordered[1].toByteArray());
+    assertArrayEquals("Longer", new byte[] {0x7f, 0}, ordered[2].toByteArray());
+    assertArrayEquals("Unsigned", new byte[] {(byte) 0x80}, ordered[3].toByteArray());
+  }
+
+  @Test
+  public void testImmutableSliceCachesHash() {
+    byte[] bytes = "cached".getBytes();
+    Slice slice = new Slice(bytes);
+    ImmutableSlice immutable = new ImmutableSlice(padded(bytes, 4));
+
+    assertEquals("Equal to Slice", slice, immutable);
+    assertEquals("Slice equal to it", immutable, slice);
+    assertEquals("Same hash", slice.hashCode(), immutable.hashCode());
+
+    HashMap<Slice, Integer> map = new HashMap<>();
+    map.put(immutable, 1);
+    assertEquals("Lookup with Slice", Integer.valueOf(1), map.get(slice));
+
+    int hash = immutable.hashCode();
+    immutable.length--;
+    assertEquals("Stale until rehashed", hash, immutable.hashCode());
+    assertEquals("Rehashed", new Slice(bytes, 0, bytes.length - 1).hashCode(), immutable.rehash());
+  }
+
+  @Test
+  public void testStringValueWithCharset() {
+    String text = "ascii prefix, then ünïcödé \u20ac and more ascii after it";
+    for (Charset charset :
+        new Charset[] {
+          StandardCharsets.UTF_8, StandardCharsets.ISO_8859_1, StandardCharsets.UTF_16LE
+        }) {
+      byte[] bytes = text.getBytes(charset);
+      Slice slice = padded(bytes, 3);
+      assertEquals(charset.name(), new String(bytes, charset), slice.stringValue(charset));
+
+      SliceDecoder decoder = new SliceDecoder(charset);
+      StringBuilder builder = new StringBuilder(">");
+      assertEquals(
+          "Builder " + charset.name(),
+          ">" + new String(bytes, charset),
+          decoder.decode(slice, builder).toString());
+      assertEquals(
+          "Buffer " + charset.name(), new String(bytes, charset), decoder.decode(slice).toString());
+
+      DirectSlice direct = new DirectSlice(ByteBuffer.allocateDirect(bytes.length));
+      direct.buffer.put(bytes);
+      assertEquals(
+          "Direct " + charset.name(),
+          new String(bytes, charset),
+          decoder.decode(direct, new StringBuilder()).toString());
+    }
+
+    byte[] malformed = {'o', 'k', (byte) 0xc3};
+    assertEquals(
+        "Malformed",
+        new String(malformed, StandardCharsets.UTF_8),
+        new Slice(malformed).stringValue(StandardCharsets.UTF_8));
+    assertEquals(
+        "Malformed decoded",
+        new String(malformed, StandardCharsets.UTF_8),
+        new SliceDecoder(StandardCharsets.UTF_8).decode(new Slice(malformed)).toString());
+  }
+
+  @Test
+  public void testViews() {
+    Slice record = padded("key=value;other=thing;;last".getBytes(), 2);
+
+    Slice key = record.subSlice(0, 3);
+    assertSame("Shared buffer", record.buffer, key.buffer);
+    assertEquals("Sub slice", "key", key.stringValue());
+    assertEquals("Index of byte", 3, record.indexOf((byte) '='));
+    assertEquals("Index of byte from", 15, record.indexOf((byte) '=', 4));
+    assertEquals("Missing byte", -1, record.indexOf((byte) '#'));
+    assertEquals("Index of slice", 10, record.indexOf(new Slice("other".getBytes())));
+    assertEquals("Index of slice from", -1, record.indexOf(new Slice("key".getBytes()), 1));
+    assertEquals("Needle at the end", 23, record.indexOf(new Slice("last".getBytes())));
+    assertEquals("Empty needle", 0, record.indexOf(new Slice(new byte[0])));
+    assertEquals("Byte from beyond", -1, record.indexOf((byte) '=', Integer.MAX_VALUE));
+    assertEquals("Byte from before", 3, record.indexOf((byte) '=', Integer.MIN_VALUE));
+    assertEquals(
+        "Slice from beyond", -1, record.indexOf(new Slice("last".getBytes()), Integer.MAX_VALUE));
+    assertEquals(
+        "Slice from the end", -1, record.indexOf(new Slice("last".getBytes()), record.length - 3));
+    assertTrue("Starts with", record.startsWith(key));
+    assertTrue("Ends with", record.endsWith(new Slice("last".getBytes())));
+    assertFalse("Does not end with", record.endsWith(key));
+
+    ArrayList<String> fields = new ArrayList<>();
+    for (Slice field : record.split((byte) ';')) {
+      assertSame("Field shares buffer", record.buffer, field.buffer);
+      fields.add(field.stringValue());
+    }
+    assertEquals("Fields", Arrays.asList("key=value", "other=thing", "", "last"), fields);
+
+    Iterator<Slice> empty = new Slice(new byte[0]).split((byte) ';').iterator();
+    assertEquals("Single empty field", 0, empty.next().length);
+    assertFalse("Exhausted", empty.hasNext());
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testSubSliceBounds() {
+    new Slice("abc".getBytes()).subSlice(2, 4);
+  }
+
+  private static byte[] serialize(Object object) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(object);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+      return in.readObject();
+    }
+  }
+
+  @Test
+  public void testCompactSerialization() throws Exception {
+    byte[] large = new byte[1 << 16];
+    new Random(3).nextBytes(large);
+    Slice window = new Slice(large, 1000, 300);
+
+    byte[] serialized = serialize(window);
+    assertTrue("Only the window is written", serialized.length < 1024);
+
+    Slice copy = (Slice) deserialize(serialized);
+    assertEquals("Same contents", window, copy);
+    assertEquals("Right sized", 300, copy.buffer.length);
+    assertEquals("Offset", 0, copy.offset);
+
+    ImmutableSlice immutable = new ImmutableSlice(window);
+    ImmutableSlice immutableCopy = (ImmutableSlice) deserialize(serialize(immutable));
+    assertEquals("Immutable contents", immutable, immutableCopy);
+    assertEquals("Immutable hash", immutable.hashCode(), immutableCopy.hashCode());
+
+    Slice empty = (Slice) deserialize(serialize(new Slice(new byte[0])));
+    assertEquals("Empty", 0, empty.length);
+  }
+}
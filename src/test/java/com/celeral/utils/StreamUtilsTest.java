@@ -17,13 +17,21 @@ package com.celeral.utils;
 
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -71,4 +79,175 @@ public class StreamUtilsTest {
 
     Assert.assertArrayEquals("bytes from 2 different methods", files, readFully);
   }
+
+  @Test
+  public void readFullyPath() throws IOException {
+    final Path file = Files.createTempFile("StreamUtilsTest", ".bin");
+    try {
+      byte[] bytes = new byte[100_000];
+      new Random(7).nextBytes(bytes);
+      Files.write(file, bytes);
+
+      assertArrayEquals("path", bytes, StreamUtils.readFully(file));
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+        channel.position(1000);
+        assertArrayEquals(
+            "channel from its position",
+            Arrays.copyOfRange(bytes, 1000, bytes.length),
+            StreamUtils.readFully(channel));
+        assertEquals("channel at the end", bytes.length, channel.position());
+
+        channel.position(bytes.length + 10);
+        assertEquals("channel past the end", 0, StreamUtils.readFully(channel).length);
+      }
+
+      DirectSlice mapped = StreamUtils.map(file);
+      assertEquals("mapped length", bytes.length, mapped.length);
+      assertArrayEquals("mapped bytes", bytes, mapped.toByteArray());
+      assertEquals("same hash as a slice", new Slice(bytes).hashCode(), mapped.hashCode());
+
+      Files.write(file, new byte[0]);
+      assertEquals("empty file", 0, StreamUtils.readFully(file).length);
+      assertEquals("empty mapping", 0, StreamUtils.map(file).length);
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void readFullyOffset() throws IOException {
+    /* a stream returning a single byte per read exposes the offset not advancing */
+    InputStream trickle =
+        new ByteArrayInputStream(new byte[] {1, 2, 3, 4}) {
+          @Override
+          public synchronized int read(byte[] b, int off, int len) {
+            return super.read(b, off, Math.min(len, 1));
+          }
+        };
+
+    byte[] bytes = new byte[6];
+    assertEquals("count", 4, StreamUtils.readFully(trickle, bytes, 1, 5));
+    assertArrayEquals("bytes", new byte[] {0, 1, 2, 3, 4, 0}, bytes);
+  }
+
+  @Test
+  public void readChunks() throws IOException {
+    byte[] bytes = new byte[1_000_000];
+    new Random(11).nextBytes(bytes);
+
+    List<Slice> chunks = StreamUtils.readChunks(new ByteArrayInputStream(bytes));
+    int offset = 0;
+    for (Slice chunk : chunks) {
+      assertTrue("chunk size " + chunk.length, chunk.length <= 256 * 1024);
+      assertEquals(new Slice(bytes, offset, chunk.length), chunk);
+      offset += chunk.length;
+    }
+    assertEquals("total", bytes.length, offset);
+
+    assertEquals(
+        "available sizes the single chunk",
+        1,
+        StreamUtils.readChunks(new ByteArrayInputStream(bytes, 0, 1000)).size());
+    assertTrue("empty", StreamUtils.readChunks(new ByteArrayInputStream(new byte[0])).isEmpty());
+  }
+
+  @Test
+  public void readFullyBounded() throws IOException {
+    byte[] bytes = new byte[100_000];
+    new Random(13).nextBytes(bytes);
+
+    assertArrayEquals(
+        "at the limit", bytes, StreamUtils.readFully(new ByteArrayInputStream(bytes), 100_000));
+    assertArrayEquals(
+        "below the limit",
+        bytes,
+        StreamUtils.readFully(new ByteArrayInputStream(bytes), Integer.MAX_VALUE));
+
+    try {
+      StreamUtils.readFully(new ByteArrayInputStream(bytes), 99_999);
+      fail("Stream exceeding the limit");
+    } catch (IOException expected) {
+      // expected
+    }
+
+    /* an endless stream must be rejected without reading much past the limit */
+    int[] count = new int[1];
+    InputStream endless =
+        new InputStream() {
+          @Override
+          public int read() {
+            count[0]++;
+            return 0;
+          }
+        };
+    try {
+      StreamUtils.readFully(endless, 10_000);
+      fail("Endless stream");
+    } catch (IOException expected) {
+      assertEquals("bytes read", 10_001, count[0]);
+    }
+  }
+
+  @Test
+  public void readFullySizes() throws IOException {
+    /* the streams underestimating what is available grow into the pooled buffers */
+    Random random = new Random(17);
+    for (int size : new int[] {0, 1, 100, 511, 512, 513, 1024, 2048, 5000, 65536, 100_000}) {
+      byte[] bytes = new byte[size];
+      random.nextBytes(bytes);
+      for (int available : new int[] {0, 100, 0}) {
+        InputStream stream =
+            new ByteArrayInputStream(bytes) {
+              @Override
+              public synchronized int available() {
+                return Math.min(available, super.available());
+              }
+            };
+        assertArrayEquals(
+            "size " + size + ", available " + available, bytes, StreamUtils.readFully(stream));
+      }
+    }
+  }
+
+  @Test
+  public void copy() throws IOException {
+    byte[] bytes = new byte[100_000];
+    new Random(19).nextBytes(bytes);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    assertEquals("count", bytes.length, StreamUtils.copy(new ByteArrayInputStream(bytes), out));
+    assertArrayEquals("bytes", bytes, out.toByteArray());
+  }
+
+  @Test
+  public void transfer() throws IOException {
+    byte[] bytes = new byte[100_000];
+    new Random(23).nextBytes(bytes);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    assertEquals(
+        "stream channel count",
+        bytes.length,
+        StreamUtils.transfer(
+            Channels.newChannel(new ByteArrayInputStream(bytes)), Channels.newChannel(out)));
+    assertArrayEquals("stream channel bytes", bytes, out.toByteArray());
+
+    final Path file = Files.createTempFile("StreamUtilsTest", ".bin");
+    try {
+      Files.write(file, bytes);
+      out.reset();
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+        channel.position(100);
+        assertEquals(
+            "file channel count",
+            bytes.length - 100,
+            StreamUtils.transfer(channel, Channels.newChannel(out)));
+        assertEquals("file channel position", bytes.length, channel.position());
+      }
+      assertArrayEquals(
+          "file channel bytes", Arrays.copyOfRange(bytes, 100, bytes.length), out.toByteArray());
+    } finally {
+      Files.delete(file);
+    }
+  }
 }
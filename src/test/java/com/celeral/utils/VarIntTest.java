@@ -0,0 +1,219 @@
+/*
+ * Copyright © 2021 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.celeral.utils;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class VarIntTest {
+  static final long[] LONGS = {
+    0,
+    1,
+    127,
+    128,
+    16383,
+    16384,
+    Integer.MAX_VALUE,
+    Integer.MIN_VALUE,
+    -1,
+    1L << 35,
+    1L << 62,
+    Long.MAX_VALUE,
+    Long.MIN_VALUE
+  };
+
+  private static long[] samples() {
+    Random random = new Random(7);
+    long[] samples = new long[LONGS.length + 1000];
+    System.arraycopy(LONGS, 0, samples, 0, LONGS.length);
+    for (int i = LONGS.length; i < samples.length; i++) {
+      samples[i] = random.nextLong() >> random.nextInt(64);
+    }
+    return samples;
+  }
+
+  @Test
+  public void testLong() throws IOException {
+    byte[] bytes = new byte[12];
+    VarInt.MutableInt newOffset = new VarInt.MutableInt();
+    ByteBuffer direct = ByteBuffer.allocateDirect(12);
+    for (long value : samples()) {
+      int end = VarInt.writeLong(value, bytes, 1);
+      assertEquals("Size " + value, VarInt.getSize(value), end - 1);
+      assertEquals("Array " + value, value, VarInt.readLong(bytes, 1, end, newOffset));
+      assertEquals("Offset " + value, end, newOffset.integer);
+
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      VarInt.writeLong(value, out);
+      assertEquals(
+          "Stream " + value, value, VarInt.readLong(new ByteArrayInputStream(out.toByteArray())));
+
+      direct.clear();
+      VarInt.writeLong(value, direct);
+      assertEquals("Direct position " + value, end - 1, direct.position());
+      direct.flip();
+      assertEquals("Direct " + value, value, VarInt.readLong(direct));
+      assertFalse("Direct remaining " + value, direct.hasRemaining());
+
+      end = VarInt.writeSignedLong(value, bytes, 0);
+      assertEquals("Signed " + value, value, VarInt.readSignedLong(bytes, 0, end, newOffset));
+      assertEquals("Zig-zag " + value, value, VarInt.decodeZigZag(VarInt.encodeZigZag(value)));
+    }
+  }
+
+  @Test
+  public void testInt() {
+    byte[] bytes = new byte[6];
+    VarInt.MutableInt newOffset = new VarInt.MutableInt();
+    ByteBuffer heap = ByteBuffer.allocate(6);
+    for (long sample : samples()) {
+      int value = (int) sample;
+      heap.clear();
+      VarInt.write(value, heap);
+      assertEquals("Heap position " + value, VarInt.getSize(value), heap.position());
+      heap.flip();
+      assertEquals("Heap " + value, value, VarInt.read(heap));
+
+      heap.clear();
+      VarInt.writeSigned(value, heap);
+      heap.flip();
+      assertEquals("Signed heap " + value, value, VarInt.readSigned(heap));
+
+      int end = VarInt.write(value, bytes, 1);
+      long packed = VarInt.readPacked(bytes, 1, end);
+      assertEquals("Packed " + value, value, VarInt.value(packed));
+      assertEquals("Packed offset " + value, end, VarInt.offset(packed));
+
+      end = VarInt.writeSigned(value, bytes, 0);
+      assertEquals("Signed " + value, value, VarInt.readSigned(bytes, 0, end, newOffset));
+      assertEquals("Offset " + value, end, newOffset.integer);
+    }
+
+    assertEquals("Small negative", 1, VarInt.writeSigned(-64, bytes, 0));
+    assertEquals("Small negative long", 1, VarInt.writeSignedLong(-64, bytes, 0));
+  }
+
+  @Test
+  public void testMalformed() {
+    byte[] bytes = new byte[11];
+    VarInt.MutableInt newOffset = new VarInt.MutableInt();
+    int end = VarInt.writeLong(Long.MIN_VALUE, bytes, 0);
+
+    VarInt.readLong(bytes, 0, 0, newOffset);
+    assertEquals("Nothing to read", 0, newOffset.integer);
+    VarInt.readLong(bytes, 0, end - 1, newOffset);
+    assertEquals("Truncated", -9, newOffset.integer);
+
+    bytes[9] |= 0x80;
+    VarInt.readLong(bytes, 0, 11, newOffset);
+    assertEquals("Too long", -10, newOffset.integer);
+
+    assertEquals("Packed nothing to read", 0, VarInt.offset(VarInt.readPacked(bytes, 0, 0)));
+    assertEquals("Packed truncated", -3, VarInt.offset(VarInt.readPacked(bytes, 0, 3)));
+    assertEquals("Packed too long", -5, VarInt.offset(VarInt.readPacked(bytes, 0, 11)));
+    VarInt.read(bytes, 0, 3, newOffset);
+    assertEquals("Same codes", -3, newOffset.integer);
+
+    ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, 3);
+    try {
+      VarInt.readLong(buffer);
+      fail("Read truncated value");
+    } catch (BufferUnderflowException expected) {
+      assertEquals("Position unchanged", 0, buffer.position());
+    }
+
+    try {
+      VarInt.read(ByteBuffer.wrap(bytes));
+      fail("Read value longer than 5 bytes");
+    } catch (IllegalArgumentException expected) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testBulk() {
+    Random random = new Random(8);
+    for (int trial = 0; trial < 200; trial++) {
+      int[] values = new int[random.nextInt(100)];
+      int maxSize = 1 + random.nextInt(5);
+      for (int i = 0; i < values.length; i++) {
+        values[i] = random.nextInt() >>> 7 * (5 - 1 - random.nextInt(maxSize));
+        if (random.nextInt(10) == 0) {
+          values[i] = -random.nextInt(100);
+        }
+      }
+
+      byte[] expected = new byte[3 + 5 * values.length];
+      int end = 3;
+      for (int value : values) {
+        end = VarInt.write(value, expected, end);
+      }
+
+      byte[] encoded = new byte[expected.length + 3];
+      Arrays.fill(encoded, (byte) 0x55);
+      assertEquals("End " + trial, end, VarInt.encode(values, 0, values.length, encoded, 3));
+      for (int i = 3; i < end; i++) {
+        assertEquals("Byte " + trial + ":" + i, expected[i], encoded[i]);
+      }
+      for (int i = end; i < encoded.length; i++) {
+        assertEquals("Untouched " + trial + ":" + i, 0x55, encoded[i]);
+      }
+
+      int[] decoded = new int[values.length];
+      assertEquals("Count " + trial, values.length, VarInt.decode(expected, 3, end - 3, decoded));
+      assertArrayEquals("Values " + trial, values, decoded);
+    }
+  }
+
+  @Test
+  public void testBulkMalformed() {
+    byte[] bytes = new byte[16];
+    int end = VarInt.write(-1, bytes, 0);
+    int[] dst = new int[16];
+    try {
+      VarInt.decode(bytes, 0, end - 1, dst);
+      fail("Decoded truncated value");
+    } catch (IllegalArgumentException expected) {
+      // expected
+    }
+
+    try {
+      VarInt.decode(bytes, 0, 2, new int[0]);
+      fail("Decoded into too small destination");
+    } catch (IllegalArgumentException expected) {
+      // expected
+    }
+
+    Arrays.fill(bytes, (byte) 0x80);
+    for (int length : new int[] {6, 16}) {
+      try {
+        VarInt.decode(bytes, 0, length, dst);
+        fail("Decoded value longer than 5 bytes");
+      } catch (IllegalArgumentException expected) {
+        assertTrue(expected.getMessage(), expected.getMessage().contains("longer"));
+      }
+    }
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright © 2021 Celeral.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.getopt.util.hash;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class MurmurHash3Test {
+  /**
+   * The verification algorithm of SMHasher: hash the keys {}, {0}, {0, 1}, ... {0, 1, ..., 254}
+   * with the seeds 256 - key length, hash the concatenation of the resulting hashes with seed 0,
+   * and take the first 4 bytes of the result as a little endian integer.
+   */
+  @Test
+  public void testSMHasherVerification() {
+    byte[] key = new byte[256];
+    ByteBuffer hashes32 = ByteBuffer.allocate(256 * 4).order(ByteOrder.LITTLE_ENDIAN);
+    ByteBuffer hashes128 = ByteBuffer.allocate(256 * 16).order(ByteOrder.LITTLE_ENDIAN);
+    for (int i = 0; i < 256; i++) {
+      key[i] = (byte) i;
+      hashes32.putInt(MurmurHash3.hash32(key, 256 - i, 0, i));
+      long[] hash = MurmurHash3.hash128(key, 256 - i, 0, i);
+      hashes128.putLong(hash[0]).putLong(hash[1]);
+    }
+
+    assertEquals("x86_32", 0xB0F57EE3, MurmurHash3.hash32(hashes32.array(), 0));
+    assertEquals("x64_128", 0x6384BA69, (int) MurmurHash3.hash128(hashes128.array(), 0)[0]);
+  }
+
+  @Test
+  public void testVectors() {
+    assertEquals("empty", 0, MurmurHash3.hash32(new byte[0], 0));
+    assertEquals("empty seeded", 0x514E28B7, MurmurHash3.hash32(new byte[0], 1));
+    assertEquals("empty unsigned seed", 0x81F16F39, MurmurHash3.hash32(new byte[0], 0xffffffff));
+
+    byte[] fox = "The quick brown fox jumps over the lazy dog".getBytes(StandardCharsets.US_ASCII);
+    assertEquals("fox x86_32", 0x2e4ff723, MurmurHash3.hash32(fox, 0));
+    assertArrayEquals(
+        "fox x64_128",
+        new long[] {0xe34bbc7bbc071b6cL, 0x7a433ca9c49a9347L},
+        MurmurHash3.hash128(fox, 0));
+    assertEquals("fox 64", 0xe34bbc7bbc071b6cL, MurmurHash3.hash64(fox, 0));
+  }
+
+  @Test
+  public void testSlicing() {
+    byte[] padded = "--The quick brown fox jumps over the lazy dog--".getBytes();
+    byte[] fox = "The quick brown fox jumps over the lazy dog".getBytes();
+    assertEquals("32", MurmurHash3.hash32(fox, 7), MurmurHash3.hash32(padded, 7, 2, fox.length));
+    assertArrayEquals(
+        "128", MurmurHash3.hash128(fox, 7), MurmurHash3.hash128(padded, 7, 2, fox.length));
+  }
+
+  @Test
+  public void testHasher() {
+    Random random = new Random(3);
+    for (int length = 0; length <= 300; length++) {
+      byte[] data = new byte[length];
+      random.nextBytes(data);
+      assertEquals(
+          "Length " + length,
+          MurmurHash3.hash32(data, 7),
+          MurmurHashTest.hashInPieces(MurmurHash3.newHasher32(7), data, random));
+    }
+  }
+}
@@ -15,6 +15,15 @@
  */
 package org.getopt.util.hash;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
 import org.junit.Test;
 
 import org.apache.logging.log4j.LogManager;
@@ -36,5 +45,216 @@ public class MurmurHashTest {
     }
   }
 
+  /** The original implementation which assembles each block a byte at a time. */
+  static int hashBytewise(byte[] data, int seed, int offset, int length) {
+    int m = 0x5bd1e995;
+    int r = 24;
+
+    int h = seed ^ length;
+
+    int len_4 = length >> 2;
+
+    for (int i = 0; i < len_4; i++) {
+      int i_4 = offset + (i << 2);
+      int k = data[i_4 + 3];
+      k <<= 8;
+      k |= (data[i_4 + 2] & 0xff);
+      k <<= 8;
+      k |= (data[i_4 + 1] & 0xff);
+      k <<= 8;
+      k |= (data[i_4 + 0] & 0xff);
+      k *= m;
+      k ^= k >>> r;
+      k *= m;
+      h *= m;
+      h ^= k;
+    }
+
+    int len_m = len_4 << 2;
+    int left = length - len_m;
+
+    if (left != 0) {
+      length += offset;
+      if (left >= 3) {
+        h ^= (int) data[length - 3] << 16;
+      }
+      if (left >= 2) {
+        h ^= (int) data[length - 2] << 8;
+      }
+      if (left >= 1) {
+        h ^= (int) data[length - 1];
+      }
+
+      h *= m;
+    }
+
+    h ^= h >>> 13;
+    h *= m;
+    h ^= h >>> 15;
+
+    return h;
+  }
+
+  @Test
+  public void testBitIdentical() {
+    Random random = new Random(1);
+    byte[] data = new byte[1024 + 3];
+    random.nextBytes(data);
+
+    ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+    direct.put(data);
+
+    for (int offset = 0; offset < 4; offset++) {
+      for (int length = 0; length <= 1024; length++) {
+        int expected = hashBytewise(data, 5, offset, length);
+        assertEquals(
+            "Array " + offset + ":" + length, expected, MurmurHash.hash(data, 5, offset, length));
+        assertEquals(
+            "Buffer " + offset + ":" + length,
+            expected,
+            MurmurHash.hash(direct, 5, offset, length));
+      }
+    }
+  }
+
+  /**
+   * Feeds the bytes to the hasher in random pieces, alternating between arrays, heap buffers and
+   * direct buffers.
+   */
+  static int hashInPieces(Hasher hasher, byte[] data, Random random) {
+    int offset = 0;
+    int piece = 0;
+    while (offset < data.length) {
+      int length = Math.min(random.nextInt(11), data.length - offset);
+      switch (piece++ % 3) {
+        case 0:
+          hasher.update(data, offset, length);
+          break;
+        case 1:
+          ByteBuffer heap = ByteBuffer.wrap(data, offset, length);
+          hasher.update(heap);
+          assertEquals("Heap position", offset + length, heap.position());
+          break;
+        default:
+          ByteBuffer direct = ByteBuffer.allocateDirect(length + 1);
+          direct.put((byte) 0).put(data, offset, length).flip().position(1);
+          hasher.update(direct);
+          assertFalse("Direct remaining", direct.hasRemaining());
+          break;
+      }
+      offset += length;
+    }
+
+    return hasher.finish();
+  }
+
+  @Test
+  public void testHasher() {
+    Random random = new Random(2);
+    for (int length = 0; length <= 300; length++) {
+      byte[] data = new byte[length];
+      random.nextBytes(data);
+      assertEquals(
+          "Length " + length,
+          MurmurHash.hash(data, 5),
+          hashInPieces(MurmurHash.newHasher(5, length), data, random));
+    }
+  }
+
+  @Test
+  public void testHasherLength() {
+    Hasher hasher = MurmurHash.newHasher(5, 3);
+    hasher.update(new byte[2]);
+    try {
+      hasher.finish();
+      fail("Finished before all the bytes were fed");
+    } catch (IllegalStateException expected) {
+      // expected
+    }
+
+    try {
+      hasher.update(new byte[2]);
+      fail("Accepted more bytes than declared");
+    } catch (IllegalStateException expected) {
+      // expected
+    }
+
+    hasher.update(new byte[1]);
+    assertEquals(MurmurHash.hash(new byte[3], 5), hasher.finish());
+  }
+
+  @Test
+  public void testByteBuffer() {
+    byte[] data = new byte[67];
+    new Random(4).nextBytes(data);
+
+    ByteBuffer heap = ByteBuffer.wrap(data, 3, 61).slice();
+    ByteBuffer direct = ByteBuffer.allocateDirect(data.length).put(data);
+    direct.position(3).limit(64);
+    int expected = MurmurHash.hash(data, 5, 3, 61);
+    assertEquals("Heap", expected, MurmurHash.hash(heap, 5));
+    assertEquals("Direct", expected, MurmurHash.hash(direct, 5));
+    assertEquals("Position", 3, direct.position());
+    assertEquals("Limit", 64, direct.limit());
+  }
+
+  @Test
+  public void testPrimitives() {
+    Random random = new Random(5);
+    ByteBuffer bytes = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+    for (int i = 0; i < NUM; i++) {
+      int value = random.nextInt();
+      bytes.putInt(0, value);
+      assertEquals("int", MurmurHash.hash(bytes.array(), 5, 0, 4), MurmurHash.hash(value, 5));
+
+      long longValue = random.nextLong();
+      bytes.putLong(0, longValue);
+      assertEquals("long", MurmurHash.hash(bytes.array(), 5), MurmurHash.hash(longValue, 5));
+    }
+  }
+
+  @Test
+  public void testCharSequence() {
+    Random random = new Random(6);
+    String[] samples = {
+      "", "a", "ab", "abc", "abcd", "\u00fcmlaut", "\u20ac1", "\ud83d\ude00 smile"
+    };
+    for (String sample : samples) {
+      assertCharSequence(sample);
+      assertEquals(
+          "Encoder " + sample,
+          MurmurHash.hash(sample.getBytes(StandardCharsets.UTF_16LE), 5),
+          MurmurHash.hash(sample, 5));
+    }
+
+    /* lone surrogates are encoded as '?' in UTF-8 */
+    assertCharSequence("\ud83d");
+    assertCharSequence("x\ude00y");
+    assertCharSequence("\ud83d\ud83d\ude00");
+
+    for (int i = 0; i < NUM; i++) {
+      char[] chars = new char[random.nextInt(20)];
+      for (int j = 0; j < chars.length; j++) {
+        /* favor the boundaries of the UTF-8 encoding lengths */
+        int[] bounds = {0x80, 0x800, 0xd800, 0xe000, 0x10000};
+        chars[j] = (char) random.nextInt(bounds[random.nextInt(bounds.length)]);
+      }
+      assertCharSequence(new String(chars));
+    }
+  }
+
+  private static void assertCharSequence(String chars) {
+    ByteBuffer utf16 = ByteBuffer.allocate(chars.length() * 2).order(ByteOrder.LITTLE_ENDIAN);
+    utf16.asCharBuffer().put(chars);
+    assertEquals(
+        "UTF-16LE " + chars,
+        MurmurHash.hash(utf16.array(), 5),
+        MurmurHash.hash(new StringBuilder(chars), 5));
+    assertEquals(
+        "UTF-8 " + chars,
+        MurmurHash.hash(chars.getBytes(StandardCharsets.UTF_8), 5),
+        MurmurHash.hashUtf8(chars, 5));
+  }
+
   private static final Logger logger = LogManager.getLogger();
 }